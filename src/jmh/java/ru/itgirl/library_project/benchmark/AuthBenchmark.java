@@ -0,0 +1,97 @@
+package ru.itgirl.library_project.benchmark;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.keygen.KeyGenerators;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import ru.itgirl.library_project.config.CachingPasswordEncoder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Стоимость аутентификации одного запроса: Basic с BCrypt (как было), Basic с кэшем проверенных паролей
+// и Bearer-токен с подписью HMAC. Провайдеры те же, что использует фильтр Spring Security
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthBenchmark {
+
+    @Param({"basic", "basic-cached", "token"})
+    private String mode;
+
+    private AuthenticationProvider provider;
+    private Authentication request;
+
+    @Setup
+    public void setUp() {
+        switch (mode) {
+            case "basic" -> basic(new BCryptPasswordEncoder());
+            case "basic-cached" -> basic(new CachingPasswordEncoder(new BCryptPasswordEncoder(), 10_000, Duration.ofMinutes(5)));
+            default -> token();
+        }
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return provider.authenticate(request);
+    }
+
+    private void basic(PasswordEncoder encoder) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider();
+        daoProvider.setPasswordEncoder(encoder);
+        daoProvider.setUserDetailsService(new InMemoryUserDetailsManager(User.builder()
+                .username("user")
+                .password(encoder.encode("password"))
+                .roles("USER")
+                .build()));
+        provider = daoProvider;
+        request = UsernamePasswordAuthenticationToken.unauthenticated("user", "password");
+    }
+
+    private void token() {
+        SecretKey key = new SecretKeySpec(KeyGenerators.secureRandom(32).generateKey(), "HmacSHA256");
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("user")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+                .claim("roles", List.of("USER"))
+                .build();
+        String token = new NimbusJwtEncoder(new ImmutableSecret<>(key))
+                .encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+                .getTokenValue();
+        provider = new JwtAuthenticationProvider(NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build());
+        request = new BearerTokenAuthenticationToken(token);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.itgirl.library_project.benchmark;
+
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.model.Author;
+import ru.itgirl.library_project.model.Book;
+import ru.itgirl.library_project.model.Genre;
+import ru.itgirl.library_project.repository.projection.AuthorBookRow;
+import ru.itgirl.library_project.repository.projection.GenreCatalogRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Синтетический каталог для бенчмарков: size книг, у каждой книги один автор, у каждого автора две книги,
+// жанров немного - как в реальной библиотеке
+final class CatalogData {
+
+    private static final int GENRES = 20;
+
+    private CatalogData() {
+    }
+
+    static List<Book> books(int size) {
+        List<Genre> genres = new ArrayList<>(GENRES);
+        for (int i = 0; i < GENRES; i++) {
+            genres.add(Genre.builder().id((long) i + 1).name("Жанр " + (i + 1)).build());
+        }
+        List<Book> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(Book.builder().id((long) i + 1).name("Книга " + (i + 1)).genre(genres.get(i % GENRES)).build());
+        }
+        return books;
+    }
+
+    static List<Author> authors(int size) {
+        List<Author> authors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            authors.add(Author.builder().id((long) i + 1).name("Имя " + (i + 1)).surname("Фамилия " + (i + 1)).build());
+        }
+        return authors;
+    }
+
+    // строки author - book - genre, отсортированные по автору
+    static List<AuthorBookRow> authorRows(int size) {
+        List<AuthorBookRow> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long authorId = i / 2 + 1;
+            rows.add(new AuthorBookRow(authorId, "Имя " + authorId, "Фамилия " + authorId,
+                    (long) i + 1, "Книга " + (i + 1), "Жанр " + (i % GENRES + 1)));
+        }
+        return rows;
+    }
+
+    // строки одного жанра genre - book - author, отсортированные по книге
+    // строки витрины genre_catalog: у каждого автора по две книги, авторы - JSON, как его отдает PostgreSQL
+    static List<GenreCatalogRow> genreRows(int size) {
+        List<GenreCatalogRow> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long authorId = i / 2 + 1;
+            String authors = "[{\"id\": " + authorId + ", \"name\": \"Имя " + authorId
+                    + "\", \"surname\": \"Фамилия " + authorId + "\"}]";
+            rows.add(new CatalogRow(1L, "Роман", (long) i + 1, "Книга " + (i + 1), authors));
+        }
+        return rows;
+    }
+
+    private record CatalogRow(Long genreId, String genreName, Long bookId, String bookName, String authors)
+            implements GenreCatalogRow {
+
+        @Override
+        public Long getGenreId() {
+            return genreId;
+        }
+
+        @Override
+        public String getGenreName() {
+            return genreName;
+        }
+
+        @Override
+        public Long getBookId() {
+            return bookId;
+        }
+
+        @Override
+        public String getBookName() {
+            return bookName;
+        }
+
+        @Override
+        public String getAuthors() {
+            return authors;
+        }
+    }
+
+    static List<BookDto> bookDtos(int size) {
+        List<BookDto> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(new BookDto((long) i + 1, "Книга " + (i + 1), "Жанр " + (i % GENRES + 1)));
+        }
+        return books;
+    }
+
+    static List<AuthorDto> authorDtos(int size) {
+        List<AuthorDto> authors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            authors.add(AuthorDto.builder()
+                    .id((long) i + 1)
+                    .name("Имя " + (i + 1))
+                    .surname("Фамилия " + (i + 1))
+                    .books(List.of(new BookDto((long) i + 1, "Книга " + (i + 1), "Жанр " + (i % GENRES + 1))))
+                    .build());
+        }
+        return authors;
+    }
+
+    static GenreDto genreDto(int size) {
+        List<BookDto> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(BookDto.builder()
+                    .id((long) i + 1)
+                    .name("Книга " + (i + 1))
+                    .authors(List.of(AuthorDto.builder().id((long) i + 1).name("Имя " + (i + 1))
+                            .surname("Фамилия " + (i + 1)).build()))
+                    .build());
+        }
+        return GenreDto.builder().id(1L).name("Роман").books(books).build();
+    }
+}
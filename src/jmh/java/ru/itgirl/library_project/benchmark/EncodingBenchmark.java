@@ -0,0 +1,85 @@
+package ru.itgirl.library_project.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.util.ColumnsConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Представления страницы каталога книг: обычный JSON (как сейчас), CBOR, Smile и колоночный JSON,
+// без сжатия и с gzip. Время - сериализация (и для columns - перекладка в колонки),
+// размер ответа печатается в лог прогона при подготовке
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"json", "cbor", "smile", "columns"})
+    private String format;
+
+    @Param({"none", "gzip"})
+    private String compression;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<BookDto> books;
+
+    @Setup
+    public void setUp() throws IOException {
+        writer = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build().writer();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build().writer();
+            default -> Jackson2ObjectMapperBuilder.json().build().writer();
+        };
+        books = CatalogData.bookDtos(size);
+        System.out.printf("%s/%s, %d books: %d bytes%n", format, compression, size, encode());
+    }
+
+    @Benchmark
+    public long encode() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        OutputStream out = "gzip".equals(compression) ? new GZIPOutputStream(counter, 8192) : counter;
+        Object payload = "columns".equals(format)
+                ? ColumnsConverter.toBookColumns(books, null)
+                : CursorPageDto.<BookDto>builder().items(books).build();
+        writer.writeValue(out, payload); // закрывает поток - gzip дописывает хвост
+        return counter.count;
+    }
+
+    // считает байты и никуда их не пишет, чтобы не измерять рост буфера
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
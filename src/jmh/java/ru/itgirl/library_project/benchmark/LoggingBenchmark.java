@@ -0,0 +1,96 @@
+package ru.itgirl.library_project.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import org.mockito.MockSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.model.Author;
+import ru.itgirl.library_project.model.Book;
+import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.service.impl.AuthorServiceImpl;
+import ru.itgirl.library_project.service.impl.GenreServiceImpl;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Сколько запросов в секунду выдерживают сервисы с логированием:
+// off - синхронная запись в потоке запроса, on - асинхронная очередь и выборка, on-json - то же в JSON
+// (logback-bench-*.xml).
+// Логи пишутся в target/jmh-logging.log, база не участвует - репозитории заменены моками
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final MockSettings STUB_ONLY = withSettings().stubOnly();
+
+    @Param({"off", "on", "on-json"})
+    private String pipeline;
+
+    private AuthorServiceImpl authorService;
+    private GenreServiceImpl genreService;
+
+    @Setup
+    public void setUp() throws Exception {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        // JSON-кодировщику Spring Boot нужен Environment, в приложении его кладет LoggingSystem
+        loggerContext.putObject(Environment.class.getName(), new StandardEnvironment());
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(loggerContext);
+        configurator.doConfigure(getClass().getResource("/logback-bench-" + pipeline + ".xml"));
+
+        List<Book> books = CatalogData.books(50);
+        Author author = new Author(1L, "Лев", "Толстой", new HashSet<>(books));
+        AuthorRepository authorRepository = mock(AuthorRepository.class, STUB_ONLY);
+        when(authorRepository.findDetailById(1L)).thenReturn(Optional.of(author));
+        GenreRepository genreRepository = mock(GenreRepository.class, STUB_ONLY);
+        when(genreRepository.findCatalogRowsById(1L)).thenReturn(CatalogData.genreRows(50));
+
+        authorService = new AuthorServiceImpl(authorRepository, genreRepository, null, null, null);
+        genreService = new GenreServiceImpl(genreRepository);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop(); // дописываем очередь до конца
+    }
+
+    @Benchmark
+    public AuthorDto getAuthorById() {
+        return authorService.getAuthorById(1L);
+    }
+
+    @Benchmark
+    public GenreDto getGenreById() {
+        return genreService.getGenreById(1L);
+    }
+}
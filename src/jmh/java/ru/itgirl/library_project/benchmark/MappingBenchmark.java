@@ -0,0 +1,106 @@
+package ru.itgirl.library_project.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.mockito.MockSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.model.Author;
+import ru.itgirl.library_project.model.Book;
+import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.BookRepository;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.repository.projection.AuthorBookRow;
+import ru.itgirl.library_project.repository.projection.GenreCatalogRow;
+import ru.itgirl.library_project.service.impl.AuthorServiceImpl;
+import ru.itgirl.library_project.service.impl.BookServiceImpl;
+import ru.itgirl.library_project.service.impl.GenreServiceImpl;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Конвертация сущностей и строк проекций в DTO внутри сервисов, без базы: репозитории - моки,
+// которые отдают заранее собранный каталог. Измеряется только код сервиса
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    // моки репозиториев вызываются один раз за операцию, им достаточно не запоминать вызовы
+    private static final MockSettings STUB_ONLY = withSettings().stubOnly();
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private BookServiceImpl bookService;
+    private AuthorServiceImpl authorService;
+    private GenreServiceImpl genreService;
+
+    @Setup
+    public void setUp() {
+        List<Book> books = CatalogData.books(size);
+        List<Author> authors = CatalogData.authors(size);
+        List<AuthorBookRow> authorRows = CatalogData.authorRows(size);
+        List<GenreCatalogRow> genreRows = CatalogData.genreRows(size);
+
+        BookRepository bookRepository = mock(BookRepository.class, STUB_ONLY);
+        when(bookRepository.streamAll()).thenAnswer(invocation -> books.stream());
+        AuthorRepository authorRepository = mock(AuthorRepository.class, STUB_ONLY);
+        when(authorRepository.streamAll()).thenAnswer(invocation -> authors.stream());
+        when(authorRepository.findAllAuthorRows()).thenReturn(authorRows);
+        GenreRepository genreRepository = mock(GenreRepository.class, STUB_ONLY);
+        when(genreRepository.findCatalogRowsById(1L)).thenReturn(genreRows);
+
+        EntityManager entityManager = noOp(EntityManager.class);
+        Validator validator = noOp(Validator.class);
+        bookService = new BookServiceImpl(bookRepository, genreRepository, null, entityManager, validator);
+        authorService = new AuthorServiceImpl(authorRepository, genreRepository, null, entityManager, validator);
+        genreService = new GenreServiceImpl(genreRepository);
+    }
+
+    // detach вызывается на каждую сущность - мок Mockito здесь стоил бы больше самой конвертации
+    @SuppressWarnings("unchecked")
+    private static <T> T noOp(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> null);
+    }
+
+    @Benchmark
+    public void booksEntityToDto(Blackhole blackhole) {
+        bookService.streamAllBooks(blackhole::consume);
+    }
+
+    @Benchmark
+    public void authorsEntityToDto(Blackhole blackhole) {
+        authorService.streamAllAuthors(blackhole::consume);
+    }
+
+    @Benchmark
+    public List<AuthorDto> authorsRowsToDto() {
+        return authorService.getAllAuthors();
+    }
+
+    @Benchmark
+    public GenreDto genreRowsToDto() {
+        return genreService.getGenreById(1L);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.itgirl.library_project.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itgirl.library_project.LibraryProjectApplication;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.BookRepository;
+import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.service.BookService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Чтение через сущности (findAll + ручная конвертация в DTO) против проекций в сервисах (сразу DTO).
+// Выделение памяти на операцию - с профилировщиком: -Djmh.args="Projection -prof gc".
+// Данные с префиксом "jmh" добавляются и удаляются бенчмарком, каждой книге - один автор по кругу
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @Param({"20000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private BookRepository bookRepository;
+    private AuthorRepository authorRepository;
+    private BookService bookService;
+    private AuthorService authorService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(LibraryProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        bookRepository = context.getBean(BookRepository.class);
+        authorRepository = context.getBean(AuthorRepository.class);
+        bookService = context.getBean(BookService.class);
+        authorService = context.getBean(AuthorService.class);
+
+        deleteData();
+        jdbcTemplate.update("insert into author(name, surname) "
+                + "select 'jmh ' || i, 'jmh ' || i from generate_series(1, ?) i", size / 4);
+        jdbcTemplate.update("insert into book(name, genre_id) "
+                + "select 'jmh ' || i, (select min(id) from genre) from generate_series(1, ?) i", size);
+        jdbcTemplate.update("insert into author_book(book_id, author_id) "
+                + "select b.id, a.id from (select id, row_number() over (order by id) - 1 as rn "
+                + "from book where name like 'jmh %') b "
+                + "join (select id, row_number() over (order by id) - 1 as rn from author where name like 'jmh %') a "
+                + "on a.rn = b.rn % ?", size / 4);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @TearDown
+    public void tearDown() {
+        deleteData();
+        context.close();
+    }
+
+    private void deleteData() {
+        jdbcTemplate.update("delete from author_book where book_id in (select id from book where name like 'jmh %')");
+        jdbcTemplate.update("delete from book where name like 'jmh %'");
+        jdbcTemplate.update("delete from author where name like 'jmh %'");
+    }
+
+    // каждая операция - своя транзакция и пустой persistence context, как у запроса к сервису
+    @Benchmark
+    public List<BookDto> booksEntities() {
+        return transactionTemplate.execute(status -> bookRepository.findAll().stream()
+                .map(book -> BookDto.builder()
+                        .id(book.getId())
+                        .name(book.getName())
+                        .genre(book.getGenre().getName())
+                        .build())
+                .toList());
+    }
+
+    @Benchmark
+    public List<BookDto> booksProjection() {
+        return bookService.getAllBooks();
+    }
+
+    @Benchmark
+    public List<AuthorDto> authorsEntities() {
+        return transactionTemplate.execute(status -> authorRepository.findAllDetailBy().stream()
+                .map(author -> AuthorDto.builder()
+                        .id(author.getId())
+                        .name(author.getName())
+                        .surname(author.getSurname())
+                        .books(author.getBooks().stream()
+                                .map(book -> new BookDto(book.getId(), book.getName(), book.getGenre().getName()))
+                                .toList())
+                        .build())
+                .toList());
+    }
+
+    @Benchmark
+    public List<AuthorDto> authorsProjection() {
+        return authorService.getAllAuthors();
+    }
+}
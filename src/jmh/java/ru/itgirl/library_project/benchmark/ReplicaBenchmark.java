@@ -0,0 +1,110 @@
+package ru.itgirl.library_project.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.itgirl.library_project.LibraryProjectApplication;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CatalogReplicaStatsDto;
+import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.service.CatalogReplicaService;
+
+import java.util.concurrent.TimeUnit;
+
+// Поиск автора/книги по id: реплика в памяти против JPA (сервис + PostgreSQL, кэш Spring отключен).
+// Id перебираются по кругу по всему каталогу, чтобы не читать все время одну и ту же запись
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplicaBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private AuthorService authorService;
+    private CatalogReplicaService catalogReplicaService;
+    private long[] authorIds;
+    private long[] bookIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(LibraryProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                // аргументы командной строки, а не properties(): те ниже по приоритету, чем application.properties
+                .run("--library.replica.enabled=true", "--library.replica.refresh-interval=1h",
+                        "--spring.cache.type=none");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        authorService = context.getBean(AuthorService.class);
+        catalogReplicaService = context.getBean(CatalogReplicaService.class);
+
+        deleteData();
+        jdbcTemplate.update("insert into author(name, surname) "
+                + "select 'jmh ' || i, 'jmh ' || i from generate_series(1, ?) i", size / 2);
+        jdbcTemplate.update("insert into book(name, genre_id) "
+                + "select 'jmh ' || i, (select min(id) from genre) from generate_series(1, ?) i", size);
+        // каждому автору - две книги
+        jdbcTemplate.update("insert into author_book(book_id, author_id) "
+                + "select b.id, a.id from (select id, (row_number() over (order by id) - 1) / 2 as rn "
+                + "from book where name like 'jmh %') b "
+                + "join (select id, row_number() over (order by id) - 1 as rn from author where name like 'jmh %') a "
+                + "on a.rn = b.rn");
+        jdbcTemplate.execute("analyze");
+        authorIds = jdbcTemplate.queryForList("select id from author where name like 'jmh %' order by random()",
+                Long.class).stream().mapToLong(Long::longValue).toArray();
+        bookIds = jdbcTemplate.queryForList("select id from book where name like 'jmh %' order by random()",
+                Long.class).stream().mapToLong(Long::longValue).toArray();
+
+        catalogReplicaService.refresh();
+        CatalogReplicaStatsDto stats = catalogReplicaService.getStats();
+        System.out.printf("%nReplica: %d books, %d authors, %d relations, ~%d KB, loaded in %d ms%n",
+                stats.getBooks(), stats.getAuthors(), stats.getRelations(), stats.getEstimatedBytes() / 1024,
+                stats.getLoadMillis());
+    }
+
+    @TearDown
+    public void tearDown() {
+        deleteData();
+        context.close();
+    }
+
+    private void deleteData() {
+        jdbcTemplate.update("delete from author_book where book_id in (select id from book where name like 'jmh %')");
+        jdbcTemplate.update("delete from book where name like 'jmh %'");
+        jdbcTemplate.update("delete from author where name like 'jmh %'");
+    }
+
+    @Benchmark
+    public AuthorDto replicaAuthor() {
+        return catalogReplicaService.getAuthorById(authorIds[next++ % authorIds.length]);
+    }
+
+    @Benchmark
+    public BookDto replicaBook() {
+        return catalogReplicaService.getBookById(bookIds[next++ % bookIds.length]);
+    }
+
+    @Benchmark
+    public AuthorDto jpaAuthor() {
+        return authorService.getAuthorById(authorIds[next++ % authorIds.length]);
+    }
+}
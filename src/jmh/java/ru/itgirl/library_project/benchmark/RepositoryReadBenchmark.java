@@ -0,0 +1,96 @@
+package ru.itgirl.library_project.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.itgirl.library_project.LibraryProjectApplication;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.service.BookService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Чтение каталога целиком: сервис + репозиторий + PostgreSQL из application.properties.
+// Схема создается Liquibase при старте контекста, данные с префиксом "jmh" добавляются и удаляются бенчмарком
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryReadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private BookService bookService;
+    private AuthorService authorService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(LibraryProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        bookService = context.getBean(BookService.class);
+        authorService = context.getBean(AuthorService.class);
+
+        deleteData();
+        jdbcTemplate.update("insert into author(name, surname) "
+                + "select 'jmh ' || i, 'jmh ' || i from generate_series(1, ?) i", size / 2);
+        jdbcTemplate.update("insert into book(name, genre_id) "
+                + "select 'jmh ' || i, (select min(id) from genre) from generate_series(1, ?) i", size);
+        // каждому автору - две книги
+        jdbcTemplate.update("insert into author_book(book_id, author_id) "
+                + "select b.id, a.id from (select id, (row_number() over (order by id) - 1) / 2 as rn "
+                + "from book where name like 'jmh %') b "
+                + "join (select id, row_number() over (order by id) - 1 as rn from author where name like 'jmh %') a "
+                + "on a.rn = b.rn");
+        jdbcTemplate.execute("analyze");
+    }
+
+    @TearDown
+    public void tearDown() {
+        deleteData();
+        context.close();
+    }
+
+    private void deleteData() {
+        jdbcTemplate.update("delete from author_book where book_id in (select id from book where name like 'jmh %')");
+        jdbcTemplate.update("delete from book where name like 'jmh %'");
+        jdbcTemplate.update("delete from author where name like 'jmh %'");
+    }
+
+    @Benchmark
+    public List<BookDto> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    @Benchmark
+    public List<AuthorDto> getAllAuthors() {
+        return authorService.getAllAuthors();
+    }
+
+    @Benchmark
+    public CursorPageDto<BookDto> getBooksPage() {
+        return bookService.getBooksPage(null, 1000);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.itgirl.library_project.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация ответов в JSON тем же ObjectMapper, что собирает Spring MVC.
+// Пишем в пустой поток, чтобы не измерять рост буфера
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<BookDto> books;
+    private List<AuthorDto> authors;
+    private GenreDto genre;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        books = CatalogData.bookDtos(size);
+        authors = CatalogData.authorDtos(size);
+        genre = CatalogData.genreDto(size);
+    }
+
+    @Benchmark
+    public void books() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), books);
+    }
+
+    @Benchmark
+    public void authors() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), authors);
+    }
+
+    @Benchmark
+    public void genre() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), genre);
+    }
+}
@@ -11,6 +11,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 @OpenAPIDefinition(info = @Info(title = "Library API", version = "2.0", description = "Library Information"))
 @SecurityScheme(name = "library-users", scheme = "basic", type = SecuritySchemeType.HTTP, in = SecuritySchemeIn.HEADER)
+@SecurityScheme(name = "library-tokens", scheme = "bearer", bearerFormat = "JWT", type = SecuritySchemeType.HTTP,
+        in = SecuritySchemeIn.HEADER)
 public class LibraryProjectApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,57 @@
+package ru.itgirl.library_project.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+// Кэши результатов сервисов. Реализация и ограничения (размер, TTL) задаются в application.properties
+// через spring.cache.* - по умолчанию Caffeine, можно заменить на любой другой провайдер Spring Cache
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String AUTHORS = "authors";
+    public static final String BOOKS_BY_NAME = "booksByName";
+    public static final String GENRES = "genres";
+    // готовый HTML страниц /books и /authors, ключ включает версию каталога
+    public static final String PAGES = "pages";
+
+    // внутри транзакции сброс (@CacheEvict) и запись (@Cacheable) откладываются до коммита: иначе чтение между
+    // сбросом и коммитом вернуло бы в кэш еще не измененные данные на весь expireAfterWrite
+    @Bean
+    public static BeanPostProcessor transactionAwareCacheManagerPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof TransactionAwareCacheManagerProxy)) {
+                    return new TransactionAwareCacheManagerProxy(cacheManager);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // страница - строка до page-size.max строк каталога, а курсор и размер в ключе выбирает клиент:
+    // общий maximumSize считал бы записи, поэтому pages ограничен объемом (2 байта на символ - с запасом)
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> pagesCacheCustomizer(
+            @Value("${library.cache.pages.max-memory:32MB}") DataSize maxMemory,
+            @Value("${library.cache.pages.expire-after-write:10m}") Duration expireAfterWrite) {
+        return cacheManager -> cacheManager.registerCustomCache(PAGES, Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher((Object key, Object html) -> 2 * ((String) html).length())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build());
+    }
+}
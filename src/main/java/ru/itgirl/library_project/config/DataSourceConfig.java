@@ -0,0 +1,91 @@
+package ru.itgirl.library_project.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Когда есть R2DBC ConnectionFactory, Spring Boot не создает JDBC DataSource сам.
+// JPA и Liquibase работают через JDBC, поэтому пул объявлен явно с теми же настройками spring.datasource.*
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Реплики (library.datasource.replica-urls) - пулы с размерами и учетной записью основного.
+    // Liquibase и все, что работает вне read-only транзакций, по-прежнему получают основную базу
+    @Bean
+    @ConditionalOnExpression("!'${library.datasource.replica-urls:}'.isBlank()")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            HikariDataSource dataSource,
+            @Value("${library.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${library.datasource.replica-max-lag:5s}") Duration maxLag,
+            @Value("${library.datasource.replica-check-interval:1s}") Duration checkInterval,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(dataSource.getUsername());
+            replica.setPassword(dataSource.getPassword());
+            replica.setMaximumPoolSize(dataSource.getMaximumPoolSize());
+            replica.setMinimumIdle(dataSource.getMinimumIdle());
+            replica.setConnectionTimeout(dataSource.getConnectionTimeout());
+            replica.setReadOnly(true); // запись на реплику - ошибка сразу, даже если вместо реплики обычная база
+            meterRegistry.ifAvailable(replica::setMetricRegistry);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        ReadWriteRoutingDataSource routingDataSource =
+                new ReadWriteRoutingDataSource(dataSource, replicas, maxLag, checkInterval);
+        meterRegistry.ifAvailable(registry -> replicas.keySet().forEach(name ->
+                Gauge.builder("library.datasource.replica.lag", routingDataSource,
+                                routing -> lagSeconds(routing.getReplicaLags().get(name)))
+                        .tag("replica", name)
+                        .baseUnit("seconds")
+                        .description("Replica lag, NaN if the replica is not available")
+                        .register(registry)));
+        return routingDataSource;
+    }
+
+    // соединение берется, только когда транзакция выполняет первый запрос - к этому моменту известно, read-only ли она
+    @Bean
+    @Primary
+    @ConditionalOnExpression("!'${library.datasource.replica-urls:}'.isBlank()")
+    public LazyConnectionDataSourceProxy routingDataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+        // значения по умолчанию заданы явно, иначе прокси берет для их проверки соединение при старте
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    private static double lagSeconds(Long lagMillis) {
+        return lagMillis == null ? Double.NaN : lagMillis / 1000.0;
+    }
+}
@@ -0,0 +1,78 @@
+package ru.itgirl.library_project.config;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.DataFetcherExceptionResolver;
+import org.springframework.graphql.execution.ErrorType;
+
+import java.util.Collection;
+
+// Ограничения запросов GraphQL: проверяются до выполнения, запрос сверх лимита отклоняется с ошибкой.
+// Сложность - число полей с учетом размеров списков: поле стоит 1 плюс сложность вложенных полей,
+// умноженная на ожидаемое число элементов (ids, first или library.graphql.list-size для связей)
+@Configuration
+public class GraphQlConfig {
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+            @Value("${library.graphql.max-depth:6}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${library.graphql.max-complexity:5000}") int maxComplexity,
+            @Value("${library.graphql.list-size:10}") int listSize,
+            @Value("${library.catalog.page-size.default:50}") int defaultPageSize,
+            @Value("${library.catalog.page-size.max:1000}") int maxPageSize) {
+        FieldComplexityCalculator calculator = (environment, childComplexity) ->
+                1 + childComplexity * expectedSize(environment, listSize, defaultPageSize, maxPageSize);
+        return new MaxQueryComplexityInstrumentation(maxComplexity, calculator);
+    }
+
+    // неверный аргумент (например, испорченный cursor) - ошибка клиента BAD_REQUEST, а не INTERNAL_ERROR
+    @Bean
+    public DataFetcherExceptionResolver badRequestExceptionResolver() {
+        return DataFetcherExceptionResolver.forSingleError((exception, environment) -> {
+            if (!(exception instanceof IllegalArgumentException)) {
+                return null; // остальное - как обычно
+            }
+            return GraphqlErrorBuilder.newError(environment)
+                    .errorType(ErrorType.BAD_REQUEST)
+                    .message(exception.getMessage())
+                    .build();
+        });
+    }
+
+    private static int expectedSize(FieldComplexityEnvironment environment, int listSize,
+                                    int defaultPageSize, int maxPageSize) {
+        if (environment.getArguments().get("ids") instanceof Collection<?> ids) {
+            return Math.max(1, ids.size());
+        }
+        if ("bookPage".equals(environment.getField().getName())) {
+            // items страницы - уже здесь, поэтому у BookPage.items множитель 1
+            return pageSize(environment, defaultPageSize, maxPageSize);
+        }
+        if ("books".equals(environment.getField().getName())) {
+            // книги автора/жанра: сервис отдает не больше first, по умолчанию list-size
+            return pageSize(environment, listSize, maxPageSize);
+        }
+        if ("BookPage".equals(environment.getParentType().getName())) {
+            return 1;
+        }
+        return GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType()))
+                ? listSize : 1;
+    }
+
+    private static int pageSize(FieldComplexityEnvironment environment, int defaultSize, int maxSize) {
+        return environment.getArguments().get("first") instanceof Integer first && first > 0
+                ? Math.min(first, maxSize) : defaultSize;
+    }
+}
@@ -0,0 +1,176 @@
+package ru.itgirl.library_project.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Соединения read-only транзакций берутся с реплик по кругу, все остальные - с основной базы.
+// Реплика пропускается, если недоступна или отстает больше чем на maxLag (тогда чтение идет на основную базу),
+// а после записи читающий ее пользователь еще maxLag + checkInterval читает с основной базы - видит свои изменения.
+// Решение принимается при получении соединения, поэтому источник оборачивается в LazyConnectionDataSourceProxy:
+// соединение берется при первом запросе, когда транзакция уже начата и известно, только ли она читает
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    // отставание: 0, если реплика применила все полученное (или это не реплика, например локальная копия базы),
+    // иначе время с последней примененной транзакции основной базы; null - реплика еще ничего не применила
+    private static final String LAG = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE extract(epoch FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final long stickyNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    // время последней записи по пользователю; потоки без пользователя (фоновые задачи) смотрят на любую запись
+    private final Cache<String, Long> lastWrites;
+    private volatile long lastWrite;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      Duration maxLag, Duration checkInterval) {
+        this.replicas = new ArrayList<>();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            this.replicas.add(new Replica(name, dataSource, new JdbcTemplate(dataSource)));
+            targets.put(name, dataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        this.maxLagMillis = maxLag.toMillis();
+        Duration sticky = maxLag.plus(checkInterval);
+        this.stickyNanos = sticky.toNanos();
+        this.lastWrite = System.nanoTime() - stickyNanos;
+        this.lastWrites = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(sticky).build();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas(); // до первых запросов знаем, какие реплики доступны
+        log.info("Reads are routed to replicas, lag in ms: {}", getReplicaLags());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                rememberWriteOnCommit();
+            }
+            return PRIMARY;
+        }
+        if (recentlyWrote(currentUser())) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isAvailable(maxLagMillis)) {
+                return replica.name;
+            }
+        }
+        return PRIMARY; // все реплики недоступны или отстают
+    }
+
+    // отставание реплик проверяется в фоне, а не при каждом соединении
+    @Scheduled(fixedDelayString = "${library.datasource.replica-check-interval:1s}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            Long lag = null;
+            String error = null;
+            try {
+                Double seconds = replica.jdbcTemplate.queryForObject(LAG, Double.class);
+                lag = seconds == null ? null : Math.round(seconds * 1000);
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+            }
+            boolean wasAvailable = replica.isAvailable(maxLagMillis);
+            replica.lagMillis = lag;
+            // в лог - только смена состояния, а не каждая проверка
+            if (wasAvailable && !replica.isAvailable(maxLagMillis)) {
+                log.warn("Replica {} is excluded from reads, lag {} ms {}", replica.name, lag, error != null ? error : "");
+            } else if (!wasAvailable && replica.isAvailable(maxLagMillis)) {
+                log.info("Replica {} is used for reads, lag {} ms", replica.name, lag);
+            }
+        }
+    }
+
+    // отставание реплик в миллисекундах (null - недоступна), для метрик
+    public Map<String, Long> getReplicaLags() {
+        Map<String, Long> lags = new LinkedHashMap<>();
+        replicas.forEach(replica -> lags.put(replica.name, replica.lagMillis));
+        return lags;
+    }
+
+    // пулы реплик не бины - закрываются вместе с маршрутизатором
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void rememberWriteOnCommit() {
+        String user = currentUser();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long now = System.nanoTime();
+                lastWrite = now;
+                if (user != null) {
+                    lastWrites.put(user, now);
+                }
+            }
+        });
+    }
+
+    private boolean recentlyWrote(String user) {
+        Long written = user != null ? lastWrites.getIfPresent(user) : Long.valueOf(lastWrite);
+        return written != null && System.nanoTime() - written < stickyNanos;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile Long lagMillis;
+
+        private Replica(String name, DataSource dataSource, JdbcTemplate jdbcTemplate) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        private boolean isAvailable(long maxLagMillis) {
+            Long lag = lagMillis;
+            return lag != null && lag <= maxLagMillis;
+        }
+    }
+}
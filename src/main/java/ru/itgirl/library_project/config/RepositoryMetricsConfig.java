@@ -0,0 +1,80 @@
+package ru.itgirl.library_project.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+
+// Сколько строк вернул каждый метод репозитория: library.repository.rows{repository, method}.
+// Время тех же вызовов Spring Boot сам пишет в spring.data.repository.invocations
+@Configuration
+public class RepositoryMetricsConfig {
+
+    public static final String ROWS_METRIC = "library.repository.rows";
+
+    // static - post processor создается раньше остальных бинов, реестр метрик берем лениво
+    @Bean
+    public static BeanPostProcessor repositoryRowsMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+                    repositoryFactoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RowsCountingInterceptor(
+                                    meterRegistry, repositoryInformation.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private record RowsCountingInterceptor(ObjectProvider<MeterRegistry> meterRegistry,
+                                           String repository) implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            Class<?> returnType = invocation.getMethod().getReturnType();
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null || returnType == void.class || returnType.isPrimitive()
+                    || Number.class.isAssignableFrom(returnType) || Boolean.class == returnType) {
+                return result; // count, exists, delete - это не строки выборки
+            }
+            Integer rows = countRows(result);
+            if (rows != null) {
+                DistributionSummary.builder(ROWS_METRIC)
+                        .tag("repository", repository)
+                        .tag("method", invocation.getMethod().getName())
+                        .register(registry)
+                        .record(rows);
+            }
+            return result;
+        }
+
+        // Stream читается уже после выхода из метода - его строки здесь не посчитать
+        private static Integer countRows(Object result) {
+            if (result == null) {
+                return 0;
+            } else if (result instanceof Collection<?> collection) {
+                return collection.size();
+            } else if (result instanceof Slice<?> slice) {
+                return slice.getNumberOfElements();
+            } else if (result instanceof Optional<?> optional) {
+                return optional.isPresent() ? 1 : 0;
+            } else if (result instanceof BaseStream<?, ?>) {
+                return null;
+            }
+            return 1;
+        }
+    }
+}
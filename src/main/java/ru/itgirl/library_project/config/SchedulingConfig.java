@@ -0,0 +1,10 @@
+package ru.itgirl.library_project.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Периодические задачи (@Scheduled), например проверка, не изменился ли каталог для реплики в памяти
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,5 +1,7 @@
 package ru.itgirl.library_project.config;
 
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -9,15 +11,31 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.keygen.KeyGenerators;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    public static final String ROLE_PREFIX = "ROLE_";
+    public static final String ROLES_CLAIM = "roles";
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -25,21 +43,56 @@ public class SecurityConfig {
                                 .requestMatchers("/book").hasRole("USER")
                                 .requestMatchers("/book/v2").hasRole("ADMIN")
                                 .requestMatchers("/books").hasRole("ADMIN")
+                                .requestMatchers("/import/**").hasRole("ADMIN")
                                 //.requestMatchers("/swagger-ui/**").permitAll()//потом удалить
                         // .requestMatchers("/v3/api-docs/**", "/swagger-ui/**").permitAll()//потом удалить
                                 .anyRequest().authenticated()
 
                 )
                 .httpBasic(Customizer.withDefaults()) // включаем HTTP Basic Authentication
+                // вместо Basic можно один раз получить токен (POST /auth/token) и передавать его как Bearer:
+                // проверка подписи HMAC намного дешевле BCrypt
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())))
                 .csrf(csrf -> csrf.disable());
 
         return http.build();
     }
 
-    // Регистрация PasswordEncoder для безопасного хранения паролей
+    // Регистрация PasswordEncoder для безопасного хранения паролей.
+    // Успешные проверки Basic кэшируются, чтобы BCrypt не выполнялся на каждый запрос (max-size=0 - без кэша)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${library.security.basic-cache.max-size:10000}") long maxSize,
+                                           @Value("${library.security.basic-cache.ttl:5m}") Duration ttl) {
+        PasswordEncoder encoder = new BCryptPasswordEncoder();
+        return maxSize > 0 ? new CachingPasswordEncoder(encoder, maxSize, ttl) : encoder;
+    }
+
+    // ключ подписи токенов; если не задан, генерируется при старте - токены живут до перезапуска
+    @Bean
+    public SecretKey tokenSigningKey(@Value("${library.security.token.secret:}") String secret) {
+        byte[] bytes = secret.isBlank() ? KeyGenerators.secureRandom(32).generateKey() : Base64.getDecoder().decode(secret);
+        return new SecretKeySpec(bytes, "HmacSHA256");
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey tokenSigningKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(tokenSigningKey));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(SecretKey tokenSigningKey) {
+        return NimbusJwtDecoder.withSecretKey(tokenSigningKey).macAlgorithm(MacAlgorithm.HS256).build();
+    }
+
+    // роли из токена - те же ROLE_*, что и у пользователей Basic
+    private JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthoritiesClaimName(ROLES_CLAIM);
+        authoritiesConverter.setAuthorityPrefix(ROLE_PREFIX);
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        return converter;
     }
 
     // Создание пользователей в памяти с использованием безопасного кодирования паролей
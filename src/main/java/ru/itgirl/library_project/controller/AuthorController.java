@@ -1,20 +1,46 @@
 package ru.itgirl.library_project.controller;
 
+import freemarker.template.TemplateException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.repository.projection.VersionRow;
 import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.util.CachedPageRenderer;
+import ru.itgirl.library_project.util.ConditionalRequests;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
 public class AuthorController {
 
     private final AuthorService authorService;
+    private final CachedPageRenderer pageRenderer;
 
+    // страница каталога; готовый HTML кэшируется до следующего изменения каталога
     @GetMapping("/authors")
-    String getAuthorsView(Model model) {
-        model.addAttribute("authors", authorService.getAllAuthors());
-        return "authors";
+    void getAuthorsView(@RequestParam(value = "cursor", required = false) String cursor,
+                        @RequestParam(value = "size", required = false) Integer size,
+                        WebRequest request, HttpServletResponse response) throws IOException, TemplateException {
+        VersionRow version = authorService.getAuthorsCatalogVersion();
+        if (ConditionalRequests.isNotModified(request, version)) {
+            return;
+        }
+        pageRenderer.render("authors", version.getEtag() + ":" + cursor + ":" + size, () -> {
+            CursorPageDto<AuthorDto> page = authorService.getAuthorsPage(cursor, size);
+            Map<String, Object> model = new HashMap<>();
+            model.put("authors", page.getItems());
+            model.put("nextCursor", page.getNextCursor());
+            model.put("size", size);
+            return model;
+        }, response);
     }
 }
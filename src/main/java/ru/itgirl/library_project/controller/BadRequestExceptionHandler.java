@@ -0,0 +1,20 @@
+package ru.itgirl.library_project.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Неверные параметры запроса, о которых сервисы сообщают через IllegalArgumentException
+// (испорченный cursor, пакет больше лимита, неизвестный тип поиска): ответ 400 с описанием, а не 500
+@RestControllerAdvice
+@Slf4j
+public class BadRequestExceptionHandler {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    ProblemDetail handleIllegalArgument(IllegalArgumentException e) {
+        log.warn("Bad request: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
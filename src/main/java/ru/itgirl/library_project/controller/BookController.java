@@ -1,20 +1,46 @@
 package ru.itgirl.library_project.controller;
 
+import freemarker.template.TemplateException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.repository.projection.VersionRow;
 import ru.itgirl.library_project.service.BookService;
+import ru.itgirl.library_project.util.CachedPageRenderer;
+import ru.itgirl.library_project.util.ConditionalRequests;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
 public class BookController {
 
     private final BookService bookService;
+    private final CachedPageRenderer pageRenderer;
 
+    // страница каталога; готовый HTML кэшируется до следующего изменения каталога
     @GetMapping("/books")
-    String getBooksView(Model model) {
-        model.addAttribute("books", bookService.getAllBooks());
-        return "books";
+    void getBooksView(@RequestParam(value = "cursor", required = false) String cursor,
+                      @RequestParam(value = "size", required = false) Integer size,
+                      WebRequest request, HttpServletResponse response) throws IOException, TemplateException {
+        VersionRow version = bookService.getBooksCatalogVersion();
+        if (ConditionalRequests.isNotModified(request, version)) {
+            return;
+        }
+        pageRenderer.render("books", version.getEtag() + ":" + cursor + ":" + size, () -> {
+            CursorPageDto<BookDto> page = bookService.getBooksPage(cursor, size);
+            Map<String, Object> model = new HashMap<>();
+            model.put("books", page.getItems());
+            model.put("nextCursor", page.getNextCursor());
+            model.put("size", size);
+            return model;
+        }, response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package ru.itgirl.library_project.controller.graphql;
+
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.repository.projection.AuthorNode;
+import ru.itgirl.library_project.repository.projection.BookNode;
+import ru.itgirl.library_project.repository.projection.GenreNode;
+import ru.itgirl.library_project.service.CatalogGraphService;
+import ru.itgirl.library_project.service.CatalogGraphService.RelationPage;
+import ru.itgirl.library_project.util.CursorCodec;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// POST /graphql, схема - graphql/schema.graphqls. Связи (@BatchMapping) собираются DataLoader-ом по всем
+// родителям уровня: жанры книг, авторы книг и книги авторов/жанров - по одному запросу на уровень.
+// У книг автора/жанра есть аргументы first и cursor, поэтому они собираются DataLoader-ом с ключом RelationPage.
+// Глубина и сложность запроса ограничены в GraphQlConfig
+@Controller
+public class CatalogGraphQlController {
+
+    private final CatalogGraphService catalogGraphService;
+
+    public CatalogGraphQlController(CatalogGraphService catalogGraphService, BatchLoaderRegistry registry) {
+        this.catalogGraphService = catalogGraphService;
+        registry.<RelationPage, List<BookNode>>forName("authorBooks")
+                .registerMappedBatchLoader((pages, environment) ->
+                        Mono.fromCallable(() -> catalogGraphService.getBooksOfAuthors(pages)));
+        registry.<RelationPage, List<BookNode>>forName("genreBooks")
+                .registerMappedBatchLoader((pages, environment) ->
+                        Mono.fromCallable(() -> catalogGraphService.getBooksOfGenres(pages)));
+    }
+
+    @QueryMapping
+    BookNode book(@Argument Long id) {
+        return catalogGraphService.getBooksByIds(List.of(id)).get(0);
+    }
+
+    @QueryMapping
+    List<BookNode> books(@Argument List<Long> ids) {
+        return catalogGraphService.getBooksByIds(ids);
+    }
+
+    @QueryMapping
+    CursorPageDto<BookNode> bookPage(@Argument String cursor, @Argument Integer first) {
+        return catalogGraphService.getBooksPage(cursor, first);
+    }
+
+    @QueryMapping
+    AuthorNode author(@Argument Long id) {
+        return catalogGraphService.getAuthorsByIds(List.of(id)).get(0);
+    }
+
+    @QueryMapping
+    List<AuthorNode> authors(@Argument List<Long> ids) {
+        return catalogGraphService.getAuthorsByIds(ids);
+    }
+
+    @QueryMapping
+    GenreNode genre(@Argument Long id) {
+        return catalogGraphService.getGenresByIds(List.of(id)).get(0);
+    }
+
+    @QueryMapping
+    List<GenreNode> genres() {
+        return catalogGraphService.getAllGenres();
+    }
+
+    @BatchMapping(typeName = "Book", field = "genre")
+    List<GenreNode> bookGenre(List<BookNode> books) {
+        return catalogGraphService.getGenresOfBooks(books);
+    }
+
+    @BatchMapping(typeName = "Book", field = "authors")
+    List<List<AuthorNode>> bookAuthors(List<BookNode> books) {
+        return catalogGraphService.getAuthorsOfBooks(books);
+    }
+
+    @SchemaMapping(typeName = "Book", field = "cursor")
+    String bookCursor(BookNode book) {
+        return CursorCodec.encode(book.getId());
+    }
+
+    @SchemaMapping(typeName = "Author", field = "books")
+    CompletableFuture<List<BookNode>> authorBooks(AuthorNode author, @Argument String cursor, @Argument Integer first,
+                                                  DataLoader<RelationPage, List<BookNode>> authorBooks) {
+        return authorBooks.load(new RelationPage(author.getId(), cursor, first));
+    }
+
+    @SchemaMapping(typeName = "Genre", field = "books")
+    CompletableFuture<List<BookNode>> genreBooks(GenreNode genre, @Argument String cursor, @Argument Integer first,
+                                                 DataLoader<RelationPage, List<BookNode>> genreBooks) {
+        return genreBooks.load(new RelationPage(genre.getId(), cursor, first));
+    }
+}
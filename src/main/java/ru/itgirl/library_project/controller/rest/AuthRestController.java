@@ -0,0 +1,28 @@
+package ru.itgirl.library_project.controller.rest;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.itgirl.library_project.dto.TokenDto;
+import ru.itgirl.library_project.service.TokenService;
+
+@RestController
+@RequiredArgsConstructor
+@SecurityRequirement(name = "library-users")
+public class AuthRestController {
+
+    private final TokenService tokenService;
+
+    // токен выдается только по логину и паролю - продлить его самим токеном нельзя
+    @PostMapping("/auth/token")
+    TokenDto issueToken(Authentication authentication) {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)) {
+            throw new AccessDeniedException("Token can only be issued for username and password");
+        }
+        return tokenService.issueToken(authentication);
+    }
+}
@@ -3,22 +3,46 @@ package ru.itgirl.library_project.controller.rest;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.itgirl.library_project.dto.AuthorCreateDto;
 import ru.itgirl.library_project.dto.AuthorDto;
 import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.BatchItemResultDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
 import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.service.LookupService;
+import ru.itgirl.library_project.util.ConditionalRequests;
+import ru.itgirl.library_project.util.JsonStreamWriter;
+import ru.itgirl.library_project.util.NdjsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 @SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
 public class AuthorRestController {
 
     private final AuthorService authorService;
+    private final LookupService lookupService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final NdjsonReader ndjsonReader;
+
+    @Value("${library.batch.max-size:10000}")
+    private int maxBatchSize;
 
     @GetMapping("/author/{id}")
-    AuthorDto getAuthorById(@PathVariable("id") Long id) {
-        return authorService.getAuthorById(id);
+    AuthorDto getAuthorById(@PathVariable("id") Long id, WebRequest request) {
+        if (ConditionalRequests.isNotModified(request, authorService.getAuthorVersion(id))) {
+            return null; // 304 Not Modified
+        }
+        return lookupService.getAuthorById(id); // мимо кэша - вместе с параллельными запросами, одним IN (...)
     }
 
     @GetMapping("/author")
@@ -26,6 +50,12 @@ public class AuthorRestController {
         return authorService.getByNameV1(name);
     }
 
+    // несколько авторов одним запросом: GET /author?ids=1,2,3
+    @GetMapping(value = "/author", params = "ids")
+    List<BatchItemResultDto<AuthorDto>> getAuthorsByIds(@RequestParam("ids") List<Long> ids) {
+        return lookupService.getAuthorsByIds(ids);
+    }
+
     @GetMapping("/author/v2")
     AuthorDto getAuthorByNameV2(@RequestParam("name") String name) {
         return authorService.getByNameV2(name);
@@ -50,4 +80,49 @@ public class AuthorRestController {
     void deleteAuthor(@PathVariable("id") Long id) {
         authorService.deleteAuthor(id);
     }
+
+    @GetMapping("/author/catalog")
+    CursorPageDto<AuthorDto> getAuthorsPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "size", required = false) Integer size,
+                                            WebRequest request) {
+        if (ConditionalRequests.isNotModified(request, authorService.getAuthorsCatalogVersion())) {
+            return null;
+        }
+        return authorService.getAuthorsPage(cursor, size);
+    }
+
+    @GetMapping(value = "/author/catalog/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    StreamingResponseBody streamAuthors() {
+        return out -> jsonStreamWriter.writeArray(out, authorService::streamAllAuthors);
+    }
+
+    @GetMapping(value = "/author/catalog/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    StreamingResponseBody streamAuthorsNdjson() {
+        return out -> jsonStreamWriter.writeNdjson(out, authorService::streamAllAuthors);
+    }
+
+    @PostMapping(value = "/author/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    List<BatchItemResultDto<AuthorDto>> createAuthors(@RequestBody List<AuthorCreateDto> authorCreateDtos) {
+        return authorService.createAuthors(authorCreateDtos);
+    }
+
+    @PostMapping(value = "/author/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    List<BatchItemResultDto<AuthorDto>> createAuthorsNdjson(InputStream body) throws IOException {
+        return authorService.createAuthors(ndjsonReader.readAll(body, AuthorCreateDto.class, maxBatchSize));
+    }
+
+    @PutMapping(value = "/author/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    List<BatchItemResultDto<AuthorDto>> updateAuthors(@RequestBody List<AuthorUpdateDto> authorUpdateDtos) {
+        return authorService.updateAuthors(authorUpdateDtos);
+    }
+
+    @PutMapping(value = "/author/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    List<BatchItemResultDto<AuthorDto>> updateAuthorsNdjson(InputStream body) throws IOException {
+        return authorService.updateAuthors(ndjsonReader.readAll(body, AuthorUpdateDto.class, maxBatchSize));
+    }
+
+    @DeleteMapping("/author/batch")
+    List<BatchItemResultDto<Long>> deleteAuthors(@RequestBody List<Long> ids) {
+        return authorService.deleteAuthors(ids);
+    }
 }
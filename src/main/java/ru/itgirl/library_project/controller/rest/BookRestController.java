@@ -3,24 +3,56 @@ package ru.itgirl.library_project.controller.rest;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.itgirl.library_project.dto.BatchItemResultDto;
+import ru.itgirl.library_project.dto.BookColumnsDto;
 import ru.itgirl.library_project.dto.BookCreateDto;
 import ru.itgirl.library_project.dto.BookDto;
 import ru.itgirl.library_project.dto.BookUpdateDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
 import ru.itgirl.library_project.service.BookService;
+import ru.itgirl.library_project.service.LookupService;
+import ru.itgirl.library_project.util.ColumnsConverter;
+import ru.itgirl.library_project.util.ConditionalRequests;
+import ru.itgirl.library_project.util.JsonStreamWriter;
+import ru.itgirl.library_project.util.NdjsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 @SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
 public class BookRestController {
 
     private final BookService bookService;
+    private final LookupService lookupService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final NdjsonReader ndjsonReader;
+
+    @Value("${library.batch.max-size:10000}")
+    private int maxBatchSize;
 
     @GetMapping("/book")
-    BookDto getBookByName(@RequestParam("name") String name) {
+    BookDto getBookByName(@RequestParam("name") String name, WebRequest request) {
+        if (ConditionalRequests.isNotModified(request, bookService.getBookVersionByName(name))) {
+            return null; // 304 Not Modified
+        }
         return bookService.getByNameV1(name);
     }
 
+    // несколько книг одним запросом: GET /book?ids=1,2,3
+    @GetMapping(value = "/book", params = "ids")
+    List<BatchItemResultDto<BookDto>> getBooksByIds(@RequestParam("ids") List<Long> ids) {
+        return lookupService.getBooksByIds(ids);
+    }
+
     @GetMapping("/book/v2")
     BookDto getBookByNameV2(@RequestParam("name") String name) {
         return bookService.getByNameV2(name);
@@ -46,4 +78,61 @@ public class BookRestController {
         bookService.deleteBook(id);
     }
 
+    @GetMapping("/book/catalog")
+    CursorPageDto<BookDto> getBooksPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "size", required = false) Integer size,
+                                        WebRequest request) {
+        if (ConditionalRequests.isNotModified(request, bookService.getBooksCatalogVersion())) {
+            return null;
+        }
+        return bookService.getBooksPage(cursor, size);
+    }
+
+    // та же страница каталога в колоночном виде - клиент выбирает его заголовком Accept
+    @GetMapping(value = "/book/catalog", produces = BookColumnsDto.MEDIA_TYPE)
+    BookColumnsDto getBooksPageColumns(@RequestParam(value = "cursor", required = false) String cursor,
+                                       @RequestParam(value = "size", required = false) Integer size,
+                                       WebRequest request) {
+        if (ConditionalRequests.isNotModified(request, bookService.getBooksCatalogVersion())) {
+            return null;
+        }
+        CursorPageDto<BookDto> page = bookService.getBooksPage(cursor, size);
+        return ColumnsConverter.toBookColumns(page.getItems(), page.getNextCursor());
+    }
+
+    @GetMapping(value = "/book/catalog/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    StreamingResponseBody streamBooks() {
+        return out -> jsonStreamWriter.writeArray(out, bookService::streamAllBooks);
+    }
+
+    @GetMapping(value = "/book/catalog/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    StreamingResponseBody streamBooksNdjson() {
+        return out -> jsonStreamWriter.writeNdjson(out, bookService::streamAllBooks);
+    }
+
+    @PostMapping(value = "/book/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    List<BatchItemResultDto<BookDto>> createBooks(@RequestBody List<BookCreateDto> bookCreateDtos) {
+        return bookService.createBooks(bookCreateDtos);
+    }
+
+    @PostMapping(value = "/book/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    List<BatchItemResultDto<BookDto>> createBooksNdjson(InputStream body) throws IOException {
+        return bookService.createBooks(ndjsonReader.readAll(body, BookCreateDto.class, maxBatchSize));
+    }
+
+    @PutMapping(value = "/book/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    List<BatchItemResultDto<BookDto>> updateBooks(@RequestBody List<BookUpdateDto> bookUpdateDtos) {
+        return bookService.updateBooks(bookUpdateDtos);
+    }
+
+    @PutMapping(value = "/book/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    List<BatchItemResultDto<BookDto>> updateBooksNdjson(InputStream body) throws IOException {
+        return bookService.updateBooks(ndjsonReader.readAll(body, BookUpdateDto.class, maxBatchSize));
+    }
+
+    @DeleteMapping("/book/batch")
+    List<BatchItemResultDto<Long>> deleteBooks(@RequestBody List<Long> ids) {
+        return bookService.deleteBooks(ids);
+    }
+
 }
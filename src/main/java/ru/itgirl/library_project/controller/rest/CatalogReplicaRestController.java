@@ -0,0 +1,40 @@
+package ru.itgirl.library_project.controller.rest;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CatalogReplicaStatsDto;
+import ru.itgirl.library_project.service.CatalogReplicaService;
+
+// Чтение книг и авторов со связями из реплики каталога в памяти (library.replica.enabled=true).
+// Записи сервисов видны после публикации событий outbox, остальные изменения - после полной перезагрузки
+// (не чаще library.replica.min-reload-interval)
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "library.replica.enabled", havingValue = "true")
+@SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
+public class CatalogReplicaRestController {
+
+    private final CatalogReplicaService catalogReplicaService;
+
+    @GetMapping("/replica/book/{id}")
+    BookDto getBookById(@PathVariable("id") Long id) {
+        return catalogReplicaService.getBookById(id);
+    }
+
+    @GetMapping("/replica/author/{id}")
+    AuthorDto getAuthorById(@PathVariable("id") Long id) {
+        return catalogReplicaService.getAuthorById(id);
+    }
+
+    @GetMapping("/replica/stats")
+    CatalogReplicaStatsDto getStats() {
+        return catalogReplicaService.getStats();
+    }
+}
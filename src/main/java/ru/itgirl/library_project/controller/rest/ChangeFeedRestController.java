@@ -0,0 +1,36 @@
+package ru.itgirl.library_project.controller.rest;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.itgirl.library_project.service.ChangeStreamService;
+
+// Поток изменений каталога (library.changes.enabled=true): события ChangeEventDto по мере публикации из outbox.
+// Продолжение после обрыва - заголовок Last-Event-ID (EventSource присылает его сам) или параметр lastEventId
+@RestController
+@RequiredArgsConstructor
+@SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
+public class ChangeFeedRestController {
+
+    private final ChangeStreamService changeStreamService;
+
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) Long lastEventId) {
+        SseEmitter emitter = changeStreamService.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.itgirl.library_project.controller.rest;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.itgirl.library_project.service.ExportService;
+
+import java.nio.charset.StandardCharsets;
+
+// Выгрузка всего каталога книг с жанрами и авторами потоком; формат выбирается заголовком Accept.
+// after - id последней полученной книги, чтобы продолжить оборванную выгрузку. Ответ сжимается gzip
+@RestController
+@RequiredArgsConstructor
+@SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
+public class ExportRestController {
+
+    private static final MediaType TEXT_CSV_UTF8 = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final ExportService exportService;
+
+    @GetMapping(value = "/export/books", produces = ImportRestController.TEXT_CSV_VALUE)
+    ResponseEntity<StreamingResponseBody> exportBooksCsv(@RequestParam(value = "after", required = false) Long afterId) {
+        return attachment("books.csv", TEXT_CSV_UTF8, out -> exportService.exportBooksCsv(afterId, out));
+    }
+
+    @GetMapping(value = "/export/books", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> exportBooksNdjson(@RequestParam(value = "after", required = false) Long afterId) {
+        return attachment("books.ndjson", MediaType.APPLICATION_NDJSON,
+                out -> exportService.exportBooksNdjson(afterId, out));
+    }
+
+    // для StreamingResponseBody produces не выставляет Content-Type, а без него Tomcat не сжимает ответ
+    private static ResponseEntity<StreamingResponseBody> attachment(String fileName, MediaType mediaType,
+                                                                    StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
@@ -4,21 +4,52 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.itgirl.library_project.dto.BatchItemResultDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
 import ru.itgirl.library_project.dto.GenreDto;
 import ru.itgirl.library_project.service.GenreService;
+import ru.itgirl.library_project.service.LookupService;
+import ru.itgirl.library_project.util.ConditionalRequests;
+
+import java.util.List;
 
 
 @RestController
 @RequiredArgsConstructor
 @SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
 public class GenreRestController {
 
     private final GenreService genreService;
+    private final LookupService lookupService;
 
     @GetMapping("/genre/{id}")
-    GenreDto getGenreById(@PathVariable("id") Long id) {
-        return genreService.getGenreById(id);
+    GenreDto getGenreById(@PathVariable("id") Long id, WebRequest request) {
+        if (ConditionalRequests.isNotModified(request, genreService.getGenreVersion(id))) {
+            return null; // 304 Not Modified
+        }
+        return lookupService.getGenreById(id); // мимо кэша - вместе с параллельными запросами, одним IN (...)
+    }
+
+    // несколько жанров одним запросом: GET /genre?ids=1,2,3
+    @GetMapping(value = "/genre", params = "ids")
+    List<BatchItemResultDto<GenreDto>> getGenresByIds(@RequestParam("ids") List<Long> ids) {
+        return lookupService.getGenresByIds(ids);
+    }
+
+    @GetMapping("/genre/{id}/books")
+    CursorPageDto<BookDto> getGenreBooksPage(@PathVariable("id") Long id,
+                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "size", required = false) Integer size,
+                                             WebRequest request) {
+        if (ConditionalRequests.isNotModified(request, genreService.getGenreVersion(id))) {
+            return null;
+        }
+        return genreService.getGenreBooksPage(id, cursor, size);
     }
 }
 
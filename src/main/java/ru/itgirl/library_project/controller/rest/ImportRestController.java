@@ -0,0 +1,47 @@
+package ru.itgirl.library_project.controller.rest;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.itgirl.library_project.dto.ImportJobDto;
+import ru.itgirl.library_project.service.ImportService;
+
+import java.io.InputStream;
+import java.util.List;
+
+// Массовый импорт каталога. Тело запроса читается потоком, ответ - итоговый отчет;
+// пока импорт идет, его прогресс виден в GET /import/jobs
+@RestController
+@RequiredArgsConstructor
+@SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
+public class ImportRestController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ImportService importService;
+
+    @PostMapping(value = "/import/books", consumes = TEXT_CSV_VALUE)
+    ImportJobDto importBooksCsv(InputStream body) {
+        return importService.importBooksCsv(body);
+    }
+
+    @PostMapping(value = "/import/books", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    ImportJobDto importBooksNdjson(InputStream body) {
+        return importService.importBooksNdjson(body);
+    }
+
+    @GetMapping("/import/jobs")
+    List<ImportJobDto> getImportJobs() {
+        return importService.getImportJobs();
+    }
+
+    @GetMapping("/import/jobs/{id}")
+    ImportJobDto getImportJob(@PathVariable("id") Long id) {
+        return importService.getImportJob(id);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.itgirl.library_project.controller.rest;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import ru.itgirl.library_project.dto.LookupRequestDto;
+import ru.itgirl.library_project.dto.LookupResultDto;
+import ru.itgirl.library_project.service.LookupService;
+
+// Авторы, книги и жанры по спискам id за один HTTP-запрос и по одному SQL-запросу на тип -
+// вместо десятков отдельных GET /author/{id} и /genre/{id} при отрисовке страницы
+@RestController
+@RequiredArgsConstructor
+@SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
+public class LookupRestController {
+
+    private final LookupService lookupService;
+
+    @PostMapping("/lookup")
+    LookupResultDto lookup(@RequestBody LookupRequestDto lookupRequestDto) {
+        return lookupService.lookup(lookupRequestDto);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.itgirl.library_project.controller.rest;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.service.ReactiveCatalogService;
+
+// Неблокирующие варианты GET-запросов каталога. Поток запроса не ждет базу: ответ дописывается асинхронно,
+// когда R2DBC вернет данные. Каталог отдается как NDJSON с backpressure - следующая строка
+// читается из базы только после того, как предыдущая записана клиенту
+@RestController
+@RequiredArgsConstructor
+@SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
+public class ReactiveCatalogRestController {
+
+    private final ReactiveCatalogService reactiveCatalogService;
+
+    @GetMapping("/reactive/book")
+    Mono<BookDto> getBookByName(@RequestParam("name") String name) {
+        return reactiveCatalogService.getBookByName(name);
+    }
+
+    @GetMapping("/reactive/author/{id}")
+    Mono<AuthorDto> getAuthorById(@PathVariable("id") Long id) {
+        return reactiveCatalogService.getAuthorById(id);
+    }
+
+    @GetMapping("/reactive/genre/{id}")
+    Mono<GenreDto> getGenreById(@PathVariable("id") Long id) {
+        return reactiveCatalogService.getGenreById(id);
+    }
+
+    @GetMapping(value = "/reactive/book/catalog", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<BookDto> getAllBooks() {
+        return reactiveCatalogService.getAllBooks();
+    }
+
+    @GetMapping(value = "/reactive/author/catalog", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<AuthorDto> getAllAuthors() {
+        return reactiveCatalogService.getAllAuthors();
+    }
+}
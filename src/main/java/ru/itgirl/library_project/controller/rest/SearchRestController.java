@@ -0,0 +1,27 @@
+package ru.itgirl.library_project.controller.rest;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.itgirl.library_project.dto.SearchResultDto;
+import ru.itgirl.library_project.service.SearchService;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@SecurityRequirement(name = "library-users")
+@SecurityRequirement(name = "library-tokens")
+public class SearchRestController {
+
+    private final SearchService searchService;
+
+    @GetMapping("/search")
+    List<SearchResultDto> search(@RequestParam("q") String query,
+                                 @RequestParam(value = "type", required = false) String type,
+                                 @RequestParam(value = "limit", required = false) Integer limit) {
+        return searchService.search(query, type, limit);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.itgirl.library_project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Результат обработки одного элемента пакетного запроса; index - позиция элемента во входных данных
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BatchItemResultDto<T> {
+    private int index;
+    private boolean success;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private T result;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public static <T> BatchItemResultDto<T> success(int index, T result) {
+        return new BatchItemResultDto<>(index, true, result, null);
+    }
+
+    public static <T> BatchItemResultDto<T> error(int index, String error) {
+        return new BatchItemResultDto<>(index, false, null, error);
+    }
+}
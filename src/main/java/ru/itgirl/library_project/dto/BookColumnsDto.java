@@ -0,0 +1,27 @@
+package ru.itgirl.library_project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Колоночный ("словарный") вид списка книг: каждое поле - отдельный массив, названия жанров
+// выводятся один раз в genres, а у книги вместо названия - индекс в этом словаре
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BookColumnsDto {
+    public static final String MEDIA_TYPE = "application/vnd.library.columns+json";
+
+    private List<String> genres;
+    private long[] ids;
+    private List<String> names;
+    private int[] genreIndexes;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+}
@@ -21,4 +21,9 @@ public class BookDto {
     @JsonInclude(JsonInclude.Include.NON_NULL)
 //чтобы при поиске книги по названию выводился только id, название, жанр (week 19)
     private List<AuthorDto> authors;
+
+    // для запросов-проекций (select new ...) - книга без авторов
+    public BookDto(Long id, String name, String genre) {
+        this(id, name, genre, null);
+    }
 }
@@ -0,0 +1,25 @@
+package ru.itgirl.library_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class CatalogReplicaStatsDto {
+    private long version;
+    private int genres;
+    private int authors;
+    private int books;
+    private int relations;
+    private long estimatedBytes;
+    private Instant loadedAt;
+    private long loadMillis;
+    // записей, измененных после загрузки снимка
+    private int changes;
+}
@@ -0,0 +1,33 @@
+package ru.itgirl.library_project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Изменение книги, автора или жанра. Несколько изменений одной записи в пачке relay сжимаются в одно событие
+// с ее состоянием на момент публикации (UPSERT) или признаком удаления (DELETE, без data)
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class ChangeEventDto {
+    public enum EntityType { BOOK, AUTHOR, GENRE }
+
+    public enum Operation { UPSERT, DELETE }
+
+    // растет от события к событию
+    private long sequence;
+    private EntityType type;
+    private Long id;
+    private Operation operation;
+
+    // BookDto (с жанром и авторами), AuthorDto (с книгами) или GenreDto (без книг)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Object data;
+
+    private Instant publishedAt;
+}
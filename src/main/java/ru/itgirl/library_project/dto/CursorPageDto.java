@@ -0,0 +1,21 @@
+package ru.itgirl.library_project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class CursorPageDto<T> {
+    private List<T> items;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    //null - значит это последняя страница
+    private String nextCursor;
+}
@@ -0,0 +1,41 @@
+package ru.itgirl.library_project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+// Состояние импорта: пока он идет - прогресс, после - итоговый отчет
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class ImportJobDto {
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private long id;
+    private String format;
+    private Status status;
+    private Instant startedAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Instant finishedAt;
+
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long genresCreated;
+    private long authorsCreated;
+    // прочитанных строк в секунду с начала импорта
+    private long rowsPerSecond;
+
+    // первые отклоненные строки; всего их rowsRejected
+    private List<ImportRejectedRowDto> rejectedRows;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+}
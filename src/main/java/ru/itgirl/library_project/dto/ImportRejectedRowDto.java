@@ -0,0 +1,14 @@
+package ru.itgirl.library_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Строка файла импорта, которая не была загружена; line - номер строки в файле, начиная с 1
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ImportRejectedRowDto {
+    private long line;
+    private String error;
+}
@@ -0,0 +1,25 @@
+package ru.itgirl.library_project.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Одна строка файла импорта: книга с жанром и авторами (жанры и авторы ищутся по имени или создаются)
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class ImportRowDto {
+    @Size(min = 1, max = 50)
+    @NotBlank(message = "Необходимо указать название книги")
+    private String name;
+    @NotBlank(message = "Необходимо указать жанр")
+    private String genre;
+    private List<@Valid AuthorCreateDto> authors;
+}
@@ -0,0 +1,19 @@
+package ru.itgirl.library_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Смешанный запрос POST /lookup: id авторов, книг и жанров, любой список можно не указывать
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class LookupRequestDto {
+    private List<Long> authors;
+    private List<Long> books;
+    private List<Long> genres;
+}
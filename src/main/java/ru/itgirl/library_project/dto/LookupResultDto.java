@@ -0,0 +1,21 @@
+package ru.itgirl.library_project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Ответ POST /lookup: по результату на каждый запрошенный id, index - позиция id в своем списке запроса
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LookupResultDto {
+    private List<BatchItemResultDto<AuthorDto>> authors;
+    private List<BatchItemResultDto<BookDto>> books;
+    private List<BatchItemResultDto<GenreDto>> genres;
+}
@@ -0,0 +1,23 @@
+package ru.itgirl.library_project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class SearchResultDto {
+    private String type; // book, author или genre
+    private Long id;
+    private String title;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    //только для книг
+    private String genre;
+
+    private double score;
+}
@@ -0,0 +1,17 @@
+package ru.itgirl.library_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class TokenDto {
+    private String token;
+    private String tokenType;
+    // срок жизни токена в секундах
+    private long expiresIn;
+}
@@ -2,7 +2,11 @@ package ru.itgirl.library_project.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.Set;
 
 @AllArgsConstructor
@@ -10,10 +14,17 @@ import java.util.Set;
 @Builder
 @Getter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// detail - автор вместе с книгами и их жанрами одним запросом (для AuthorDto с книгами)
+@NamedEntityGraph(name = "Author.detail",
+        attributeNodes = @NamedAttributeNode(value = "books", subgraph = "books"),
+        subgraphs = @NamedSubgraph(name = "books", attributeNodes = @NamedAttributeNode("genre")))
 public class Author {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -25,5 +36,17 @@ public class Author {
     private String surname;
 
     @ManyToMany(mappedBy = "authors")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Book> books;
-}
\ No newline at end of file
+
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public Author(Long id, String name, String surname, Set<Book> books) {
+        this(id, name, surname, books, null, null);
+    }
+}
@@ -2,7 +2,11 @@ package ru.itgirl.library_project.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.Set;
 
 @AllArgsConstructor
@@ -10,9 +14,15 @@ import java.util.Set;
 @Builder
 @Getter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// summary - книга с жанром (BookDto без авторов)
+@NamedEntityGraph(name = "Book.summary", attributeNodes = @NamedAttributeNode("genre"))
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // sequence с шагом 50 вместо IDENTITY - Hibernate может группировать вставки в JDBC batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_id_seq", allocationSize = 50)
    @Setter //добавила для week24
     private Long id;
 
@@ -27,10 +37,22 @@ public class Book {
 
    @Setter //добавила для week24
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "author_book",
             inverseJoinColumns = @JoinColumn(name = "author_id", referencedColumnName = "id"),
             joinColumns = @JoinColumn(name = "book_id", referencedColumnName = "id"))
     private Set<Author> authors;
 
+    // увеличивается Hibernate при каждом изменении - из нее строится ETag
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public Book(Long id, String name, Genre genre, Set<Author> authors) {
+        this(id, name, genre, authors, null, null);
+    }
 }
@@ -2,7 +2,11 @@ package ru.itgirl.library_project.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.Set;
 
 @AllArgsConstructor
@@ -10,9 +14,16 @@ import java.util.Set;
 @Builder
 @Getter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// detail - жанр со всеми книгами и их авторами одним запросом (для GenreDto)
+@NamedEntityGraph(name = "Genre.detail",
+        attributeNodes = @NamedAttributeNode(value = "books", subgraph = "books"),
+        subgraphs = @NamedSubgraph(name = "books", attributeNodes = @NamedAttributeNode("authors")))
 public class Genre {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "genre_seq")
+    @SequenceGenerator(name = "genre_seq", sequenceName = "genre_id_seq", allocationSize = 50)
     @Setter //добавила для week24
     private Long id;
 
@@ -21,5 +32,17 @@ public class Genre {
     private String name;
 
     @OneToMany(mappedBy = "genre")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Book> books;
+
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public Genre(Long id, String name, Set<Book> books) {
+        this(id, name, books, null, null);
+    }
 }
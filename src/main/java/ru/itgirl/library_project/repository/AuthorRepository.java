@@ -1,15 +1,102 @@
 package ru.itgirl.library_project.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.itgirl.library_project.model.Author;
+import ru.itgirl.library_project.repository.projection.AuthorBookRow;
+import ru.itgirl.library_project.repository.projection.AuthorNode;
+import ru.itgirl.library_project.repository.projection.SearchRow;
+import ru.itgirl.library_project.repository.projection.VersionRow;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AuthorRepository extends JpaRepository<Author, Long>, JpaSpecificationExecutor<Author> {
+    @EntityGraph("Author.detail")
     Optional<Author> findAuthorByName(String name);
 
+    // detail - для чтения AuthorDto с книгами; findById и findAllById остаются без графа для изменения и удаления
+    @EntityGraph("Author.detail")
+    Optional<Author> findDetailById(Long id);
+
+    @EntityGraph("Author.detail")
+    List<Author> findAllDetailBy();
+
     @Query(nativeQuery = true, value = "SELECT * FROM AUTHOR WHERE name = ?")
     Optional<Author> findAuthorByNameBySql(String name);
-}
\ No newline at end of file
+
+    // проекции для чтения: плоские строки автор + книга, без загрузки сущностей в persistence context
+    @Query("select new ru.itgirl.library_project.repository.projection.AuthorBookRow("
+            + "a.id, a.name, a.surname, b.id, b.name, g.name) "
+            + "from Author a left join a.books b left join b.genre g "
+            + "where a.name = :name order by a.id, b.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    List<AuthorBookRow> findAuthorRowsByName(@Param("name") String name);
+
+    @Query("select new ru.itgirl.library_project.repository.projection.AuthorBookRow("
+            + "a.id, a.name, a.surname, b.id, b.name, g.name) "
+            + "from Author a left join a.books b left join b.genre g "
+            + "order by a.id, b.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    List<AuthorBookRow> findAllAuthorRows();
+
+    // пакетное чтение по списку id (GET /author?ids=..., POST /lookup) - все авторы одним запросом
+    @Query("select new ru.itgirl.library_project.repository.projection.AuthorBookRow("
+            + "a.id, a.name, a.surname, b.id, b.name, g.name) "
+            + "from Author a left join a.books b left join b.genre g "
+            + "where a.id in :ids order by a.id, b.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    List<AuthorBookRow> findAuthorRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // GraphQL: авторы по id и авторы сразу всех книг уровня - по одному запросу, без сущностей
+    @Query("select new ru.itgirl.library_project.repository.projection.AuthorNode(null, a.id, a.name, a.surname) "
+            + "from Author a where a.id in :ids")
+    List<AuthorNode> findAuthorNodesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new ru.itgirl.library_project.repository.projection.AuthorNode(b.id, a.id, a.name, a.surname) "
+            + "from Book b join b.authors a where b.id in :bookIds order by a.id")
+    List<AuthorNode> findAuthorNodesByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    // keyset-пагинация: следующая страница после автора с id = afterId
+    @Query("select a from Author a where a.id > :afterId order by a.id")
+    List<Author> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select a from Author a order by a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Author> streamAll();
+
+    // поиск по имени и фамилии: префикс, подстрока и опечатки (pg_trgm)
+    @Query(nativeQuery = true, value = "SELECT a.id AS id, a.name || ' ' || a.surname AS title, NULL AS genre, "
+            + "CASE WHEN lower(a.name || ' ' || a.surname) LIKE :q || '%' THEN 1.0 "
+            + "WHEN lower(a.name || ' ' || a.surname) LIKE '%' || :q || '%' THEN 0.8 "
+            + "ELSE word_similarity(:q, lower(a.name || ' ' || a.surname)) * 0.7 END AS score "
+            + "FROM author a "
+            + "WHERE lower(a.name || ' ' || a.surname) LIKE '%' || :q || '%' OR :q <% lower(a.name || ' ' || a.surname) "
+            + "ORDER BY score DESC, a.id LIMIT :limit")
+    List<SearchRow> search(@Param("q") String query, @Param("limit") int limit);
+
+    // ETag автора: версии автора, его книг и их жанров - меняется вместе с AuthorDto
+    @Query(nativeQuery = true, value = "SELECT md5(a.id || ':' || a.version || ';' || coalesce(string_agg("
+            + "b.id || ':' || b.version || ':' || g.id || ':' || g.version, ',' ORDER BY b.id), '')) AS etag, "
+            + "CAST(extract(epoch FROM greatest(a.updated_at, max(b.updated_at), max(g.updated_at))) * 1000 AS bigint) "
+            + "AS lastModified "
+            + "FROM author a LEFT JOIN author_book ab ON ab.author_id = a.id "
+            + "LEFT JOIN book b ON b.id = ab.book_id LEFT JOIN genre g ON g.id = b.genre_id "
+            + "WHERE a.id = :id GROUP BY a.id")
+    Optional<VersionRow> findVersionById(@Param("id") Long id);
+
+    // ETag каталога авторов: счетчики изменений всех таблиц, из которых собирается AuthorDto
+    @Query(nativeQuery = true, value = "SELECT md5(string_agg(table_name || ':' || version, ',' ORDER BY table_name)) "
+            + "AS etag, CAST(extract(epoch FROM max(updated_at)) * 1000 AS bigint) AS lastModified "
+            + "FROM table_version WHERE table_name IN ('author', 'author_book', 'book', 'genre')")
+    VersionRow findCatalogVersion();
+}
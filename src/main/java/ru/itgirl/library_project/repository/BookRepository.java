@@ -1,15 +1,118 @@
 package ru.itgirl.library_project.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.itgirl.library_project.dto.BookDto;
 import ru.itgirl.library_project.model.Book;
+import ru.itgirl.library_project.repository.projection.BookNode;
+import ru.itgirl.library_project.repository.projection.GenreCatalogRow;
+import ru.itgirl.library_project.repository.projection.SearchRow;
+import ru.itgirl.library_project.repository.projection.VersionRow;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+    @EntityGraph("Book.summary")
     Optional<Book> findBookByName(String name);
 
+    @Override
+    @EntityGraph("Book.summary")
+    Optional<Book> findById(Long id);
+
+    @Override
+    @EntityGraph("Book.summary")
+    List<Book> findAll();
+
+    @Override
+    @EntityGraph("Book.summary")
+    Optional<Book> findOne(Specification<Book> spec);
+
     @Query(nativeQuery = true, value = "SELECT * FROM BOOK WHERE name = ?")
     Optional<Book> findBookByNameBySql(String name);
+
+    // проекции для чтения: сразу BookDto, без загрузки сущностей в persistence context
+    @Query("select new ru.itgirl.library_project.dto.BookDto(b.id, b.name, g.name) "
+            + "from Book b join b.genre g where b.name = :name")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    Optional<BookDto> findBookDtoByName(@Param("name") String name);
+
+    @Query("select new ru.itgirl.library_project.dto.BookDto(b.id, b.name, g.name) "
+            + "from Book b join b.genre g order by b.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    List<BookDto> findAllBookDtos();
+
+    // пакетное чтение по списку id: книги с жанром и авторами из витрины genre_catalog одним запросом
+    @Query(nativeQuery = true, value = "SELECT c.genre_id AS genreId, g.name AS genreName, "
+            + "c.book_id AS bookId, c.book_name AS bookName, CAST(c.authors AS text) AS authors "
+            + "FROM genre_catalog c JOIN genre g ON g.id = c.genre_id "
+            + "WHERE c.book_id IN (:ids)")
+    List<GenreCatalogRow> findCatalogRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // GraphQL: книги по id, страница каталога и книги сразу всех авторов/жанров уровня - по одному запросу
+    @Query("select new ru.itgirl.library_project.repository.projection.BookNode(null, b.id, b.name, b.genre.id) "
+            + "from Book b where b.id in :ids")
+    List<BookNode> findBookNodesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new ru.itgirl.library_project.repository.projection.BookNode(null, b.id, b.name, b.genre.id) "
+            + "from Book b where b.id > :afterId order by b.id")
+    List<BookNode> findBookNodePageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // книги сразу нескольких авторов/жанров: у каждого родителя не больше limit книг с id больше afterId
+    // (lateral - отдельная выборка по индексу на каждого родителя, а не все его книги)
+    @Query("select new ru.itgirl.library_project.repository.projection.BookNode(a.id, b.id, b.name, b.genreId) "
+            + "from Author a join lateral (select ab.id as id, ab.name as name, ab.genre.id as genreId "
+            + "from Book ab join ab.authors aa where aa.id = a.id and ab.id > :afterId order by ab.id limit :limit) b "
+            + "where a.id in :authorIds order by b.id")
+    List<BookNode> findBookNodesByAuthorIdIn(@Param("authorIds") Collection<Long> authorIds,
+                                             @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Query("select new ru.itgirl.library_project.repository.projection.BookNode(g.id, b.id, b.name, g.id) "
+            + "from Genre g join lateral (select gb.id as id, gb.name as name "
+            + "from Book gb where gb.genre.id = g.id and gb.id > :afterId order by gb.id limit :limit) b "
+            + "where g.id in :genreIds order by b.id")
+    List<BookNode> findBookNodesByGenreIdIn(@Param("genreIds") Collection<Long> genreIds,
+                                            @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    // keyset-пагинация: следующая страница после книги с id = afterId
+    @Query("select b from Book b join fetch b.genre where b.id > :afterId order by b.id")
+    List<Book> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select b from Book b join fetch b.genre order by b.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Book> streamAll();
+
+    // поиск по префиксу, подстроке и с опечатками (pg_trgm); q - в нижнем регистре, с экранированными % и _
+    @Query(nativeQuery = true, value = "SELECT b.id AS id, b.name AS title, g.name AS genre, "
+            + "CASE WHEN lower(b.name) LIKE :q || '%' THEN 1.0 "
+            + "WHEN lower(b.name) LIKE '%' || :q || '%' THEN 0.8 "
+            + "ELSE word_similarity(:q, lower(b.name)) * 0.7 END AS score "
+            + "FROM book b JOIN genre g ON g.id = b.genre_id "
+            + "WHERE lower(b.name) LIKE '%' || :q || '%' OR :q <% lower(b.name) "
+            + "ORDER BY score DESC, b.id LIMIT :limit")
+    List<SearchRow> search(@Param("q") String query, @Param("limit") int limit);
+
+    // ETag книги по названию: версии книги и ее жанра; HAVING - без строки, если книги нет
+    @Query(nativeQuery = true, value = "SELECT md5(string_agg("
+            + "b.id || ':' || b.version || ':' || g.id || ':' || g.version, ',' ORDER BY b.id)) AS etag, "
+            + "CAST(extract(epoch FROM greatest(max(b.updated_at), max(g.updated_at))) * 1000 AS bigint) AS lastModified "
+            + "FROM book b JOIN genre g ON g.id = b.genre_id "
+            + "WHERE b.name = :name HAVING count(*) > 0")
+    Optional<VersionRow> findVersionByName(@Param("name") String name);
+
+    // ETag каталога книг: счетчики изменений таблиц book и genre
+    @Query(nativeQuery = true, value = "SELECT md5(string_agg(table_name || ':' || version, ',' ORDER BY table_name)) "
+            + "AS etag, CAST(extract(epoch FROM max(updated_at)) * 1000 AS bigint) AS lastModified "
+            + "FROM table_version WHERE table_name IN ('book', 'genre')")
+    VersionRow findCatalogVersion();
 }
@@ -0,0 +1,55 @@
+package ru.itgirl.library_project.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+// Выгрузка каталога через COPY ... TO STDOUT: строки идут из базы прямо в поток ответа по мере чтения,
+// в памяти приложения не собирается ни список, ни сущности. Источник - витрина genre_catalog
+// (книга с авторами в одной строке), порядок - по id книги, чтобы выгрузку можно было продолжить после обрыва
+@Repository
+@RequiredArgsConstructor
+public class CatalogExportRepository {
+
+    // название жанра - подзапросом по первичному ключу: план остается чтением индекса по book_id, без сортировки
+    private static final String GENRE_NAME = "(SELECT g.name FROM genre g WHERE g.id = c.genre_id)";
+
+    private static final String CSV = "COPY (SELECT c.book_id AS id, c.book_name AS name, " + GENRE_NAME + " AS genre, "
+            + "(SELECT string_agg(concat_ws(' ', a.value ->> 'name', a.value ->> 'surname'), '; ' ORDER BY a.ordinality) "
+            + "FROM jsonb_array_elements(c.authors) WITH ORDINALITY a) AS authors "
+            + "FROM genre_catalog c WHERE c.book_id > %d ORDER BY c.book_id) TO STDOUT WITH (FORMAT csv, HEADER)";
+
+    // одна колонка с JSON; кавычка и разделитель - управляющие символы, которых в тексте jsonb не бывает,
+    // поэтому строки выходят без экранирования
+    private static final String NDJSON = "COPY (SELECT jsonb_build_object('id', c.book_id, 'name', c.book_name, "
+            + "'genre', " + GENRE_NAME + ", 'authors', c.authors) "
+            + "FROM genre_catalog c WHERE c.book_id > %d ORDER BY c.book_id) "
+            + "TO STDOUT WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // количество выгруженных книг
+    public long copyBooksCsv(long afterId, OutputStream out) {
+        return copyOut(CSV.formatted(afterId), out);
+    }
+
+    public long copyBooksNdjson(long afterId, OutputStream out) {
+        return copyOut(NDJSON.formatted(afterId), out);
+    }
+
+    private long copyOut(String sql, OutputStream out) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package ru.itgirl.library_project.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Массовая загрузка каталога: строки копируются через COPY во временные таблицы import_*,
+// оттуда переносятся в основные таблицы одним запросом. Работает в текущей транзакции
+@Repository
+@RequiredArgsConstructor
+public class CatalogImportRepository {
+
+    public static final String AUTHOR_SEQUENCE = "author_id_seq";
+    public static final String BOOK_SEQUENCE = "book_id_seq";
+    // как allocationSize в сущностях: значение последовательности - верхняя граница блока из 50 id
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    // книги новые - строки витрины собираются прямо из временных таблиц, без поиска по book и author_book
+    private static final String CATALOG_INSERT = "INSERT INTO genre_catalog (book_id, genre_id, book_name, authors) "
+            + "SELECT b.id, b.genre_id, b.name, "
+            + "COALESCE(jsonb_agg(jsonb_build_object('id', a.id, 'name', a.name, 'surname', a.surname) "
+            + "ORDER BY a.id) FILTER (WHERE a.id IS NOT NULL), CAST('[]' AS jsonb)) "
+            + "FROM import_book b LEFT JOIN import_author_book ab ON ab.book_id = b.id "
+            + "LEFT JOIN author a ON a.id = ab.author_id GROUP BY b.id, b.genre_id, b.name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record AuthorName(String name, String surname) {
+    }
+
+    public record BookRow(long id, String name, long genreId) {
+    }
+
+    public record AuthorBookRow(long bookId, long authorId) {
+    }
+
+    // импорты выполняются по одному: иначе два импорта могут одновременно создать одного и того же автора
+    public void lock() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('catalog import'))");
+    }
+
+    // временные таблицы живут в соединении, строки в них - до конца транзакции
+    public void prepareStaging() {
+        jdbcTemplate.execute("CREATE TEMP TABLE IF NOT EXISTS import_author "
+                + "(id bigint, name varchar, surname varchar) ON COMMIT DELETE ROWS; "
+                + "CREATE TEMP TABLE IF NOT EXISTS import_book "
+                + "(id bigint, name varchar, genre_id bigint) ON COMMIT DELETE ROWS; "
+                + "CREATE TEMP TABLE IF NOT EXISTS import_author_book "
+                + "(book_id bigint, author_id bigint) ON COMMIT DELETE ROWS; "
+                + "TRUNCATE import_author, import_book, import_author_book");
+    }
+
+    // количество созданных жанров; уже существующие (уникальный индекс по имени) пропускаются
+    public int insertGenres(Collection<String> names) {
+        return jdbcTemplate.update("INSERT INTO genre (name) SELECT unnest(?) ON CONFLICT (name) DO NOTHING",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", names.toArray())));
+    }
+
+    public Map<String, Long> findGenreIds(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM genre WHERE name = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", names.toArray())),
+                rs -> {
+                    ids.put(rs.getString("name"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    // id уже существующих авторов; если в таблице есть одинаковые авторы, берется первый
+    public Map<AuthorName, Long> findAuthorIds(Collection<AuthorName> authors) {
+        copy("import_author (name, surname)", authors, author -> new Object[]{author.name(), author.surname()});
+        Map<AuthorName, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT s.name, s.surname, min(a.id) AS id FROM import_author s "
+                        + "JOIN author a ON a.surname = s.surname AND a.name = s.name GROUP BY s.name, s.surname",
+                rs -> {
+                    ids.put(new AuthorName(rs.getString("name"), rs.getString("surname")), rs.getLong("id"));
+                });
+        jdbcTemplate.execute("TRUNCATE import_author");
+        return ids;
+    }
+
+    public void insertAuthors(Map<AuthorName, Long> authors) {
+        copy("import_author (id, name, surname)", authors.entrySet(),
+                author -> new Object[]{author.getValue(), author.getKey().name(), author.getKey().surname()});
+        jdbcTemplate.update("INSERT INTO author (id, name, surname) SELECT id, name, surname FROM import_author");
+    }
+
+    // после COPY - статистика по временным таблицам, иначе планировщик не знает их размер
+    public void stageBooks(Collection<BookRow> books, Collection<AuthorBookRow> authorBooks) {
+        copy("import_book (id, name, genre_id)", books, book -> new Object[]{book.id(), book.name(), book.genreId()});
+        copy("import_author_book (book_id, author_id)", authorBooks,
+                authorBook -> new Object[]{authorBook.bookId(), authorBook.authorId()});
+        jdbcTemplate.execute("ANALYZE import_book, import_author_book");
+    }
+
+    // перенос подготовленных книг и их авторов, затем строки витрины genre_catalog для них
+    public int mergeBooks() {
+        int books = jdbcTemplate.update("INSERT INTO book (id, name, genre_id) SELECT id, name, genre_id FROM import_book");
+        jdbcTemplate.update("INSERT INTO author_book (book_id, author_id) SELECT book_id, author_id FROM import_author_book");
+        jdbcTemplate.update(CATALOG_INSERT);
+        return books;
+    }
+
+    // id из последовательности так же, как их выделяет Hibernate: блоками (значение - 49 .. значение),
+    // поэтому импорт и обычные вставки через JPA не пересекаются
+    public long[] allocateIds(String sequence, int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            int blocks = (count - filled + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE;
+            List<Long> upperBounds = jdbcTemplate.queryForList(
+                    "SELECT nextval(CAST(? AS regclass)) FROM generate_series(1, ?)", Long.class, sequence, blocks);
+            for (long upperBound : upperBounds) {
+                for (long id = Math.max(1, upperBound - ID_ALLOCATION_SIZE + 1); id <= upperBound && filled < count; id++) {
+                    ids[filled++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    // COPY ... FROM STDIN в формате CSV: строки в кавычках, null - пустое значение без кавычек
+    private <T> void copy(String target, Collection<T> rows, Function<T, Object[]> columns) {
+        StringBuilder data = new StringBuilder();
+        for (T row : rows) {
+            Object[] values = columns.apply(row);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    data.append(',');
+                }
+                if (values[i] instanceof String value) {
+                    data.append('"').append(value.replace("\"", "\"\"")).append('"');
+                } else if (values[i] != null) {
+                    data.append(values[i]);
+                }
+            }
+            data.append('\n');
+        }
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY " + target + " FROM STDIN WITH (FORMAT csv)", new StringReader(data.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package ru.itgirl.library_project.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.util.CatalogSnapshot;
+
+import javax.sql.DataSource;
+
+// Чтение каталога целиком для реплики в памяти: четыре таблицы без JPA-сущностей, прямо в массивы снимка
+@Repository
+public class CatalogReplicaRepository {
+
+    // строки читаются курсором порциями, а не все сразу в память драйвера
+    private static final int FETCH_SIZE = 10_000;
+
+    // версии растут при любом изменении таблиц (триггеры table_change) - сумма меняется вместе с ними
+    private static final String VERSION = "SELECT coalesce(sum(version), 0) FROM table_version "
+            + "WHERE table_name IN ('author', 'author_book', 'book', 'genre')";
+
+    private static final String ROWS = "SELECT (SELECT count(*) FROM genre) + (SELECT count(*) FROM author) "
+            + "+ (SELECT count(*) FROM book) + (SELECT count(*) FROM author_book)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogReplicaRepository(DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public long findCatalogVersion() {
+        return jdbcTemplate.queryForObject(VERSION, Long.class);
+    }
+
+    // все таблицы и версия - из одного снимка базы, поэтому реплика согласована и версия ей соответствует.
+    // Больше maxRows строк не читаем: снимок целиком в куче, а на время замены в памяти два снимка
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CatalogSnapshot load(long maxRows) {
+        long version = findCatalogVersion();
+        long rows = jdbcTemplate.queryForObject(ROWS, Long.class);
+        if (rows > maxRows) {
+            throw new IllegalStateException("Catalog has " + rows + " rows, replica is limited to " + maxRows
+                    + " (library.replica.max-rows)");
+        }
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+        jdbcTemplate.query("SELECT id, name FROM genre", rs -> {
+            builder.addGenre(rs.getLong(1), rs.getString(2));
+        });
+        jdbcTemplate.query("SELECT id, name, surname FROM author", rs -> {
+            builder.addAuthor(rs.getLong(1), rs.getString(2), rs.getString(3));
+        });
+        jdbcTemplate.query("SELECT id, name, genre_id FROM book", rs -> {
+            builder.addBook(rs.getLong(1), rs.getString(2), rs.getLong(3));
+        });
+        // порядок задает порядок авторов у книги и книг у автора - по id, как в JPA-запросах
+        jdbcTemplate.query("SELECT book_id, author_id FROM author_book ORDER BY book_id, author_id", rs -> {
+            builder.addAuthorBook(rs.getLong(1), rs.getLong(2));
+        });
+        return builder.build(version);
+    }
+}
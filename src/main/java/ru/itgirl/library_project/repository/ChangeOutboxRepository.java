@@ -0,0 +1,55 @@
+package ru.itgirl.library_project.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+// Outbox изменений каталога (таблица change_outbox): id измененных записей, без самих данных
+@Repository
+@RequiredArgsConstructor
+public class ChangeOutboxRepository {
+
+    public record OutboxRow(long id, String entityType, long entityId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // одна вставка на любое число id
+    public int append(String entityType, Collection<Long> ids) {
+        return jdbcTemplate.update("INSERT INTO change_outbox (entity_type, entity_id) SELECT ?, unnest(?)", ps -> {
+            ps.setString(1, entityType);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+        });
+    }
+
+    // строки, которые сейчас публикует другой экземпляр приложения, пропускаются, а не ждут его коммита
+    public List<OutboxRow> lockBatch(int limit) {
+        return jdbcTemplate.query("SELECT id, entity_type, entity_id FROM change_outbox ORDER BY id LIMIT ? "
+                        + "FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new OutboxRow(rs.getLong(1), rs.getString(2), rs.getLong(3)), limit);
+    }
+
+    public int delete(Collection<Long> ids) {
+        return jdbcTemplate.update("DELETE FROM change_outbox WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    // номера событий: последовательность не откатывается, поэтому номера растут, но могут идти с пропусками
+    public List<Long> nextSequences(int count) {
+        return jdbcTemplate.queryForList("SELECT nextval('change_event_seq') AS sequence FROM generate_series(1, ?) "
+                + "ORDER BY sequence", Long.class, count);
+    }
+
+    // последний выданный номер события, 0 - номеров еще не было
+    public long findLastSequence() {
+        return jdbcTemplate.queryForObject(
+                "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM change_event_seq", Long.class);
+    }
+
+    public long countPending() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM change_outbox", Long.class);
+    }
+}
@@ -1,8 +1,117 @@
 package ru.itgirl.library_project.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.itgirl.library_project.model.Genre;
+import ru.itgirl.library_project.repository.projection.GenreBookAuthorRow;
+import ru.itgirl.library_project.repository.projection.GenreCatalogRow;
+import ru.itgirl.library_project.repository.projection.GenreNode;
+import ru.itgirl.library_project.repository.projection.SearchRow;
+import ru.itgirl.library_project.repository.projection.VersionRow;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface GenreRepository extends JpaRepository<Genre, Long> {
+    // жанры почти не меняются - результат держим в кэше запросов Hibernate, он сбрасывается при изменении таблицы genre
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Genre findByName(String name);
+
+    // для пакетных операций - все нужные жанры одним запросом
+    List<Genre> findByNameIn(Collection<String> names);
+
+    @Override
+    @EntityGraph("Genre.detail")
+    Optional<Genre> findById(Long id);
+
+    // GraphQL: жанры без книг - по id и все сразу (таблица маленькая)
+    @Query("select new ru.itgirl.library_project.repository.projection.GenreNode(g.id, g.name) "
+            + "from Genre g where g.id in :ids")
+    List<GenreNode> findGenreNodesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new ru.itgirl.library_project.repository.projection.GenreNode(g.id, g.name) "
+            + "from Genre g order by g.id")
+    List<GenreNode> findAllGenreNodes();
+
+    // проекция для чтения: плоские строки жанр + книга + автор, без загрузки сущностей в persistence context
+    @Query("select new ru.itgirl.library_project.repository.projection.GenreBookAuthorRow("
+            + "g.id, g.name, b.id, b.name, a.id, a.name, a.surname) "
+            + "from Genre g left join g.books b left join b.authors a "
+            + "where g.id = :id order by b.id, a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    List<GenreBookAuthorRow> findGenreRowsById(@Param("id") Long id);
+
+    // витрина genre_catalog: жанр и его книги с авторами одним чтением по индексу (genre_id, book_id)
+    @Query(nativeQuery = true, value = "SELECT g.id AS genreId, g.name AS genreName, "
+            + "c.book_id AS bookId, c.book_name AS bookName, CAST(c.authors AS text) AS authors "
+            + "FROM genre g LEFT JOIN genre_catalog c ON c.genre_id = g.id "
+            + "WHERE g.id = :id ORDER BY c.book_id")
+    List<GenreCatalogRow> findCatalogRowsById(@Param("id") Long id);
+
+    // то же для нескольких жанров сразу (пакетное чтение по списку id)
+    @Query(nativeQuery = true, value = "SELECT g.id AS genreId, g.name AS genreName, "
+            + "c.book_id AS bookId, c.book_name AS bookName, CAST(c.authors AS text) AS authors "
+            + "FROM genre g LEFT JOIN genre_catalog c ON c.genre_id = g.id "
+            + "WHERE g.id IN (:ids) ORDER BY g.id, c.book_id")
+    List<GenreCatalogRow> findCatalogRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // keyset-пагинация по книгам жанра: следующая страница после книги с id = afterId
+    @Query(nativeQuery = true, value = "SELECT c.genre_id AS genreId, NULL AS genreName, "
+            + "c.book_id AS bookId, c.book_name AS bookName, CAST(c.authors AS text) AS authors "
+            + "FROM genre_catalog c "
+            + "WHERE c.genre_id = :id AND c.book_id > :afterId ORDER BY c.book_id LIMIT :limit")
+    List<GenreCatalogRow> findCatalogPageAfter(@Param("id") Long id, @Param("afterId") Long afterId,
+                                               @Param("limit") int limit);
+
+    // пересобрать строки витрины для книг; flushAutomatically - сначала уходят несохраненные изменения книг.
+    // NATIVE_SPACES: Hibernate сбрасывает только то, что связано с genre_catalog, а не весь кэш второго уровня
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = CATALOG_UPSERT + "WHERE b.id IN (:bookIds) " + CATALOG_UPSERT_TAIL)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "genre_catalog"))
+    int refreshCatalogForBooks(@Param("bookIds") Collection<Long> bookIds);
+
+    // то же для всех книг авторов - после изменения имени или фамилии
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = CATALOG_UPSERT
+            + "WHERE b.id IN (SELECT x.book_id FROM author_book x WHERE x.author_id IN (:authorIds)) "
+            + CATALOG_UPSERT_TAIL)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "genre_catalog"))
+    int refreshCatalogForAuthors(@Param("authorIds") Collection<Long> authorIds);
+
+    // ETag жанра: версии жанра, его книг и их авторов - меняется вместе с GenreDto
+    @Query(nativeQuery = true, value = "SELECT md5(g.id || ':' || g.version || ';' || coalesce(string_agg("
+            + "b.id || ':' || b.version || ':' || coalesce(a.id || ':' || a.version, ''), ',' ORDER BY b.id, a.id), '')) "
+            + "AS etag, "
+            + "CAST(extract(epoch FROM greatest(g.updated_at, max(b.updated_at), max(a.updated_at))) * 1000 AS bigint) "
+            + "AS lastModified "
+            + "FROM genre g LEFT JOIN book b ON b.genre_id = g.id "
+            + "LEFT JOIN author_book ab ON ab.book_id = b.id LEFT JOIN author a ON a.id = ab.author_id "
+            + "WHERE g.id = :id GROUP BY g.id")
+    Optional<VersionRow> findVersionById(@Param("id") Long id);
+
+    String CATALOG_UPSERT = "INSERT INTO genre_catalog (book_id, genre_id, book_name, authors) "
+            + "SELECT b.id, b.genre_id, b.name, "
+            + "COALESCE(jsonb_agg(jsonb_build_object('id', a.id, 'name', a.name, 'surname', a.surname) "
+            + "ORDER BY a.id) FILTER (WHERE a.id IS NOT NULL), CAST('[]' AS jsonb)) "
+            + "FROM book b LEFT JOIN author_book ab ON ab.book_id = b.id LEFT JOIN author a ON a.id = ab.author_id ";
+
+    String CATALOG_UPSERT_TAIL = "GROUP BY b.id ON CONFLICT (book_id) DO UPDATE SET "
+            + "genre_id = EXCLUDED.genre_id, book_name = EXCLUDED.book_name, authors = EXCLUDED.authors";
+
+    // поиск по названию жанра: префикс, подстрока и опечатки (pg_trgm)
+    @Query(nativeQuery = true, value = "SELECT g.id AS id, g.name AS title, NULL AS genre, "
+            + "CASE WHEN lower(g.name) LIKE :q || '%' THEN 1.0 "
+            + "WHEN lower(g.name) LIKE '%' || :q || '%' THEN 0.8 "
+            + "ELSE word_similarity(:q, lower(g.name)) * 0.7 END AS score "
+            + "FROM genre g "
+            + "WHERE lower(g.name) LIKE '%' || :q || '%' OR :q <% lower(g.name) "
+            + "ORDER BY score DESC, g.id LIMIT :limit")
+    List<SearchRow> search(@Param("q") String query, @Param("limit") int limit);
 }
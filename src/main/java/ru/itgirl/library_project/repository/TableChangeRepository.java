@@ -0,0 +1,39 @@
+package ru.itgirl.library_project.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+// Журнал изменений таблиц (table_change_log): триггеры только вставляют в него строки, а счетчики table_change
+// обновляет один фоновый перенос - пишущие транзакции не ждут друг друга на строке счетчика
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class TableChangeRepository {
+
+    // удаление строк журнала и увеличение счетчиков - один оператор, читатели table_version видят либо до, либо после
+    private static final String COMPACT = "WITH moved AS (DELETE FROM table_change_log RETURNING table_name, changed_at), "
+            + "counted AS (SELECT table_name, count(*) AS changes, max(changed_at) AS updated_at "
+            + "FROM moved GROUP BY table_name) "
+            + "UPDATE table_change c SET version = c.version + counted.changes, "
+            + "updated_at = greatest(c.updated_at, counted.updated_at) "
+            + "FROM counted WHERE c.table_name = counted.table_name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // версия таблицы: растет на единицу с каждым зафиксированным оператором, изменившим таблицу
+    public long findVersion(String tableName) {
+        return jdbcTemplate.queryForObject("SELECT version FROM table_version WHERE table_name = ?", Long.class,
+                tableName);
+    }
+
+    // журнал не растет без предела: накопившееся за compact-interval переносится в счетчики
+    @Scheduled(fixedDelayString = "${library.table-change.compact-interval:5s}")
+    public int compact() {
+        int tables = jdbcTemplate.update(COMPACT);
+        log.debug("Table change log compacted into {} counters", tables);
+        return tables;
+    }
+}
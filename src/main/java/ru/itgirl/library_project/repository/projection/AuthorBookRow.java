@@ -0,0 +1,17 @@
+package ru.itgirl.library_project.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Одна строка соединения author - author_book - book - genre (select new ...).
+// У автора без книг поля книги равны null
+@AllArgsConstructor
+@Getter
+public class AuthorBookRow {
+    private final Long authorId;
+    private final String name;
+    private final String surname;
+    private final Long bookId;
+    private final String bookName;
+    private final String genre;
+}
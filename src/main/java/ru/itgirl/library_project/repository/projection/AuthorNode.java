@@ -0,0 +1,14 @@
+package ru.itgirl.library_project.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Автор для GraphQL (select new ...); parentId - id книги, для которой автор выбран, у корневых запросов null
+@AllArgsConstructor
+@Getter
+public class AuthorNode {
+    private final Long parentId;
+    private final Long id;
+    private final String name;
+    private final String surname;
+}
@@ -0,0 +1,15 @@
+package ru.itgirl.library_project.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Книга для GraphQL (select new ...): только собственные поля и id жанра, связи догружаются отдельно.
+// parentId - id автора или жанра, для которого книга выбрана; у корневых запросов null
+@AllArgsConstructor
+@Getter
+public class BookNode {
+    private final Long parentId;
+    private final Long id;
+    private final String name;
+    private final Long genreId;
+}
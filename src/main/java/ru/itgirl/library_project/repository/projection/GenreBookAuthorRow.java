@@ -0,0 +1,18 @@
+package ru.itgirl.library_project.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Одна строка соединения genre - book - author_book - author (select new ...).
+// У жанра без книг поля книги равны null, у книги без авторов - поля автора
+@AllArgsConstructor
+@Getter
+public class GenreBookAuthorRow {
+    private final Long genreId;
+    private final String genreName;
+    private final Long bookId;
+    private final String bookName;
+    private final Long authorId;
+    private final String authorName;
+    private final String authorSurname;
+}
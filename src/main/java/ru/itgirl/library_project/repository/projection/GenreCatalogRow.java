@@ -0,0 +1,14 @@
+package ru.itgirl.library_project.repository.projection;
+
+// Строка витрины genre_catalog: книга жанра, авторы книги - готовый JSON-массив
+public interface GenreCatalogRow {
+    Long getGenreId();
+
+    String getGenreName();
+
+    Long getBookId();
+
+    String getBookName();
+
+    String getAuthors();
+}
@@ -0,0 +1,12 @@
+package ru.itgirl.library_project.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Жанр для GraphQL (select new ...), без книг
+@AllArgsConstructor
+@Getter
+public class GenreNode {
+    private final Long id;
+    private final String name;
+}
@@ -0,0 +1,12 @@
+package ru.itgirl.library_project.repository.projection;
+
+// Строка результата полнотекстового поиска (нативные запросы с pg_trgm)
+public interface SearchRow {
+    Long getId();
+
+    String getTitle();
+
+    String getGenre();
+
+    Double getScore();
+}
@@ -0,0 +1,8 @@
+package ru.itgirl.library_project.repository.projection;
+
+// Версия ресурса для условных GET: ETag и время последнего изменения (мс), считаются в SQL без загрузки сущностей
+public interface VersionRow {
+    String getEtag();
+
+    Long getLastModified();
+}
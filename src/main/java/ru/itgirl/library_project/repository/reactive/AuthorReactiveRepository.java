@@ -0,0 +1,42 @@
+package ru.itgirl.library_project.repository.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.repository.projection.AuthorBookRow;
+
+// Неблокирующее чтение авторов через R2DBC - те же запросы, что в AuthorRepository, без сущностей
+@Repository
+@RequiredArgsConstructor
+public class AuthorReactiveRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<AuthorBookRow> findAuthorRowsById(Long id) {
+        return databaseClient.sql("SELECT a.id, a.name, a.surname, b.id AS book_id, b.name AS book_name, "
+                        + "g.name AS genre FROM author a "
+                        + "LEFT JOIN author_book ab ON ab.author_id = a.id "
+                        + "LEFT JOIN book b ON b.id = ab.book_id "
+                        + "LEFT JOIN genre g ON g.id = b.genre_id "
+                        + "WHERE a.id = :id ORDER BY b.id")
+                .bind("id", id)
+                .map(row -> new AuthorBookRow(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("surname", String.class), row.get("book_id", Long.class),
+                        row.get("book_name", String.class), row.get("genre", String.class)))
+                .all();
+    }
+
+    // каталог без книг, как в потоковой выгрузке AuthorService
+    public Flux<AuthorDto> findAllAuthorDtos() {
+        return databaseClient.sql("SELECT id, name, surname FROM author ORDER BY id")
+                .filter(statement -> statement.fetchSize(BookReactiveRepository.FETCH_SIZE))
+                .map(row -> AuthorDto.builder()
+                        .id(row.get("id", Long.class))
+                        .name(row.get("name", String.class))
+                        .surname(row.get("surname", String.class))
+                        .build())
+                .all();
+    }
+}
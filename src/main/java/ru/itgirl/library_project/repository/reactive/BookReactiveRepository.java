@@ -0,0 +1,40 @@
+package ru.itgirl.library_project.repository.reactive;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.itgirl.library_project.dto.BookDto;
+
+// Неблокирующее чтение книг через R2DBC - те же запросы, что в BookRepository, без сущностей
+@Repository
+@RequiredArgsConstructor
+public class BookReactiveRepository {
+
+    // сколько строк драйвер запрашивает у базы за раз - следующая порция читается по мере спроса подписчика
+    static final int FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<BookDto> findBookDtoByName(String name) {
+        return databaseClient.sql("SELECT b.id, b.name, g.name AS genre FROM book b "
+                        + "JOIN genre g ON g.id = b.genre_id WHERE b.name = :name")
+                .bind("name", name)
+                .map(BookReactiveRepository::toBookDto)
+                .first();
+    }
+
+    public Flux<BookDto> findAllBookDtos() {
+        return databaseClient.sql("SELECT b.id, b.name, g.name AS genre FROM book b "
+                        + "JOIN genre g ON g.id = b.genre_id ORDER BY b.id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(BookReactiveRepository::toBookDto)
+                .all();
+    }
+
+    private static BookDto toBookDto(Readable row) {
+        return new BookDto(row.get("id", Long.class), row.get("name", String.class), row.get("genre", String.class));
+    }
+}
@@ -0,0 +1,30 @@
+package ru.itgirl.library_project.repository.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import ru.itgirl.library_project.repository.projection.GenreBookAuthorRow;
+
+// Неблокирующее чтение жанров через R2DBC - тот же запрос, что GenreRepository.findGenreRowsById
+@Repository
+@RequiredArgsConstructor
+public class GenreReactiveRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<GenreBookAuthorRow> findGenreRowsById(Long id) {
+        return databaseClient.sql("SELECT g.id, g.name, b.id AS book_id, b.name AS book_name, "
+                        + "a.id AS author_id, a.name AS author_name, a.surname AS author_surname FROM genre g "
+                        + "LEFT JOIN book b ON b.genre_id = g.id "
+                        + "LEFT JOIN author_book ab ON ab.book_id = b.id "
+                        + "LEFT JOIN author a ON a.id = ab.author_id "
+                        + "WHERE g.id = :id ORDER BY b.id, a.id")
+                .bind("id", id)
+                .map(row -> new GenreBookAuthorRow(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("book_id", Long.class), row.get("book_name", String.class),
+                        row.get("author_id", Long.class), row.get("author_name", String.class),
+                        row.get("author_surname", String.class)))
+                .all();
+    }
+}
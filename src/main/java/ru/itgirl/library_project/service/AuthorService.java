@@ -3,9 +3,14 @@ package ru.itgirl.library_project.service;
 import ru.itgirl.library_project.dto.AuthorCreateDto;
 import ru.itgirl.library_project.dto.AuthorDto;
 import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.BatchItemResultDto;
 import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.repository.projection.VersionRow;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AuthorService {
     AuthorDto getAuthorById(Long id); //week18
@@ -23,4 +28,19 @@ public interface AuthorService {
     void deleteAuthor(Long id); //week20
 
     public List<AuthorDto> getAllAuthors(); //week21
+
+    CursorPageDto<AuthorDto> getAuthorsPage(String cursor, Integer size);
+
+    void streamAllAuthors(Consumer<AuthorDto> consumer);
+
+    List<BatchItemResultDto<AuthorDto>> createAuthors(List<AuthorCreateDto> authorCreateDtos);
+
+    List<BatchItemResultDto<AuthorDto>> updateAuthors(List<AuthorUpdateDto> authorUpdateDtos);
+
+    List<BatchItemResultDto<Long>> deleteAuthors(List<Long> ids);
+
+    // версии для условных GET - без загрузки и конвертации самих данных
+    Optional<VersionRow> getAuthorVersion(Long id);
+
+    VersionRow getAuthorsCatalogVersion();
 }
@@ -1,10 +1,15 @@
 package ru.itgirl.library_project.service;
 
+import ru.itgirl.library_project.dto.BatchItemResultDto;
 import ru.itgirl.library_project.dto.BookCreateDto;
 import ru.itgirl.library_project.dto.BookDto;
 import ru.itgirl.library_project.dto.BookUpdateDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.repository.projection.VersionRow;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
     BookDto getByNameV1(String name); //week19
@@ -20,4 +25,18 @@ public interface BookService {
     void deleteBook(Long id); //week20
 
     public List<BookDto> getAllBooks(); //week21
+
+    CursorPageDto<BookDto> getBooksPage(String cursor, Integer size);
+
+    void streamAllBooks(Consumer<BookDto> consumer);
+
+    List<BatchItemResultDto<BookDto>> createBooks(List<BookCreateDto> bookCreateDtos);
+
+    List<BatchItemResultDto<BookDto>> updateBooks(List<BookUpdateDto> bookUpdateDtos);
+
+    List<BatchItemResultDto<Long>> deleteBooks(List<Long> ids);
+
+    Optional<VersionRow> getBookVersionByName(String name);
+
+    VersionRow getBooksCatalogVersion();
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package ru.itgirl.library_project.service;
+
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.repository.projection.AuthorNode;
+import ru.itgirl.library_project.repository.projection.BookNode;
+import ru.itgirl.library_project.repository.projection.GenreNode;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Чтение каталога для GraphQL. Списки по id возвращаются в порядке запроса (null - не найден),
+// связи - сразу для всех родителей уровня, списком в порядке родителей.
+// Книги автора/жанра - постранично: по ключу (родитель, cursor, first) не больше first книг после cursor
+public interface CatalogGraphService {
+
+    record RelationPage(Long parentId, String cursor, Integer first) {
+    }
+
+    List<BookNode> getBooksByIds(List<Long> ids);
+
+    CursorPageDto<BookNode> getBooksPage(String cursor, Integer size);
+
+    List<AuthorNode> getAuthorsByIds(List<Long> ids);
+
+    List<GenreNode> getGenresByIds(List<Long> ids);
+
+    List<GenreNode> getAllGenres();
+
+    List<GenreNode> getGenresOfBooks(List<BookNode> books);
+
+    List<List<AuthorNode>> getAuthorsOfBooks(List<BookNode> books);
+
+    Map<RelationPage, List<BookNode>> getBooksOfAuthors(Collection<RelationPage> pages);
+
+    Map<RelationPage, List<BookNode>> getBooksOfGenres(Collection<RelationPage> pages);
+}
@@ -0,0 +1,18 @@
+package ru.itgirl.library_project.service;
+
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CatalogReplicaStatsDto;
+
+public interface CatalogReplicaService {
+
+    BookDto getBookById(Long id);
+
+    AuthorDto getAuthorById(Long id);
+
+    CatalogReplicaStatsDto getStats();
+
+    void refreshIfChanged();
+
+    void refresh();
+}
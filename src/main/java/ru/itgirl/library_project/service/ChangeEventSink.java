@@ -0,0 +1,12 @@
+package ru.itgirl.library_project.service;
+
+import ru.itgirl.library_project.dto.ChangeEventDto;
+
+import java.util.List;
+
+// Получатель событий об изменениях каталога. События приходят пачками в порядке sequence; пачка вызывается
+// до удаления строк outbox, и если получатель бросит исключение, вся пачка будет опубликована еще раз
+public interface ChangeEventSink {
+
+    void publish(List<ChangeEventDto> events);
+}
@@ -0,0 +1,14 @@
+package ru.itgirl.library_project.service;
+
+import ru.itgirl.library_project.dto.ChangeEventDto;
+
+import java.util.Collection;
+
+public interface ChangeFeedService {
+
+    // вызывается внутри транзакции изменения - строки outbox фиксируются вместе с ним
+    void recordChanges(ChangeEventDto.EntityType type, Collection<Long> ids);
+
+    // публикует накопленные изменения, возвращает число обработанных строк outbox
+    int relayChanges();
+}
@@ -0,0 +1,12 @@
+package ru.itgirl.library_project.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface ChangeStreamService {
+
+    // lastEventId - sequence последнего полученного события (Last-Event-ID) или null для новых событий.
+    // null в ответе - подписчиков уже max-subscribers
+    SseEmitter subscribe(Long lastEventId);
+
+    int getSubscriberCount();
+}
@@ -0,0 +1,10 @@
+package ru.itgirl.library_project.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+    void exportBooksCsv(Long afterId, OutputStream out) throws IOException;
+
+    void exportBooksNdjson(Long afterId, OutputStream out) throws IOException;
+}
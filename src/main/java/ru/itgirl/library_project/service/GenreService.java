@@ -1,7 +1,16 @@
 package ru.itgirl.library_project.service;
 
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
 import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.repository.projection.VersionRow;
+
+import java.util.Optional;
 
 public interface GenreService {
     GenreDto getGenreById(Long id); //week18
+
+    CursorPageDto<BookDto> getGenreBooksPage(Long id, String cursor, Integer size);
+
+    Optional<VersionRow> getGenreVersion(Long id);
 }
@@ -0,0 +1,16 @@
+package ru.itgirl.library_project.service;
+
+import ru.itgirl.library_project.dto.ImportJobDto;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface ImportService {
+    ImportJobDto importBooksCsv(InputStream in);
+
+    ImportJobDto importBooksNdjson(InputStream in);
+
+    List<ImportJobDto> getImportJobs();
+
+    ImportJobDto getImportJob(Long id);
+}
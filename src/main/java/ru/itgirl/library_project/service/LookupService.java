@@ -0,0 +1,27 @@
+package ru.itgirl.library_project.service;
+
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BatchItemResultDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.dto.LookupRequestDto;
+import ru.itgirl.library_project.dto.LookupResultDto;
+
+import java.util.List;
+
+// Пакетное чтение по id: результат на каждый id, ненайденный id - ошибка элемента, а не всего запроса
+public interface LookupService {
+
+    List<BatchItemResultDto<AuthorDto>> getAuthorsByIds(List<Long> ids);
+
+    List<BatchItemResultDto<BookDto>> getBooksByIds(List<Long> ids);
+
+    List<BatchItemResultDto<GenreDto>> getGenresByIds(List<Long> ids);
+
+    LookupResultDto lookup(LookupRequestDto lookupRequestDto);
+
+    // одиночное чтение: из кэша сервиса, иначе вместе с параллельными чтениями других запросов одним IN (...)
+    AuthorDto getAuthorById(Long id);
+
+    GenreDto getGenreById(Long id);
+}
@@ -0,0 +1,20 @@
+package ru.itgirl.library_project.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+
+// Неблокирующее чтение каталога (R2DBC); изменения идут через BookService/AuthorService
+public interface ReactiveCatalogService {
+    Mono<BookDto> getBookByName(String name);
+
+    Mono<AuthorDto> getAuthorById(Long id);
+
+    Mono<GenreDto> getGenreById(Long id);
+
+    Flux<BookDto> getAllBooks();
+
+    Flux<AuthorDto> getAllAuthors();
+}
@@ -0,0 +1,9 @@
+package ru.itgirl.library_project.service;
+
+import ru.itgirl.library_project.dto.SearchResultDto;
+
+import java.util.List;
+
+public interface SearchService {
+    List<SearchResultDto> search(String query, String type, Integer limit);
+}
@@ -0,0 +1,8 @@
+package ru.itgirl.library_project.service;
+
+import org.springframework.security.core.Authentication;
+import ru.itgirl.library_project.dto.TokenDto;
+
+public interface TokenService {
+    TokenDto issueToken(Authentication authentication);
+}
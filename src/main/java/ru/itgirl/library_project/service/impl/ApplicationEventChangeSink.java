@@ -0,0 +1,22 @@
+package ru.itgirl.library_project.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.itgirl.library_project.dto.ChangeEventDto;
+import ru.itgirl.library_project.service.ChangeEventSink;
+
+import java.util.List;
+
+// Слушатели внутри приложения: @EventListener с параметром ChangeEventDto получает каждое событие
+@Component
+@RequiredArgsConstructor
+public class ApplicationEventChangeSink implements ChangeEventSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<ChangeEventDto> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
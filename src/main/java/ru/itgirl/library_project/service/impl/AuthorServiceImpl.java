@@ -1,25 +1,52 @@
 package ru.itgirl.library_project.service.impl;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.config.CacheConfig;
 import ru.itgirl.library_project.dto.AuthorCreateDto;
 import ru.itgirl.library_project.dto.AuthorDto;
 import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.BatchItemResultDto;
 import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.ChangeEventDto.EntityType;
+import ru.itgirl.library_project.dto.CursorPageDto;
 import ru.itgirl.library_project.model.Author;
 import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.repository.projection.VersionRow;
 import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.service.ChangeFeedService;
+import ru.itgirl.library_project.util.BatchSupport;
+import ru.itgirl.library_project.util.CursorCodec;
+import ru.itgirl.library_project.util.RowsConverter;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -27,14 +54,32 @@ import java.util.stream.Collectors;
 public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final GenreRepository genreRepository;
+    private final ChangeFeedService changeFeedService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+
+    @Value("${library.catalog.page-size.default:50}")
+    private int defaultPageSize;
+
+    @Value("${library.catalog.page-size.max:1000}")
+    private int maxPageSize;
+
+    @Value("${library.batch.max-size:10000}")
+    private int maxBatchSize;
 
     @Override
+    @Cacheable(value = CacheConfig.AUTHORS, key = "#id")
+    @Transactional(readOnly = true)
     public AuthorDto getAuthorById(Long id) {
         log.info("Try to find author by id {}", id);
-        Optional<Author> author = authorRepository.findById(id);
+        Optional<Author> author = authorRepository.findDetailById(id);
         if (author.isPresent()) {
             AuthorDto authorDto = convertEntityToDto(author.get());
-            log.info("Author: {}", authorDto.toString());
+            log.atInfo().setMessage("Found author with id {} and {} books")
+                    .addArgument(authorDto::getId)
+                    .addArgument(() -> countBooks(authorDto))
+                    .log();
             return authorDto;
         } else {
             log.error("Author with id {} not found", id);
@@ -43,12 +88,16 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AuthorDto getByNameV1(String name) {
         log.info("Try to find author by name {}", name);
-        Optional<Author> author = authorRepository.findAuthorByName(name);
-        if (author.isPresent()) {
-            AuthorDto authorDto = convertEntityToDto(author.get());
-            log.info("Author: {}", authorDto.toString());
+        List<AuthorDto> authors = RowsConverter.toAuthorDtos(authorRepository.findAuthorRowsByName(name));
+        if (!authors.isEmpty()) {
+            AuthorDto authorDto = authors.get(0);
+            log.atInfo().setMessage("Found author with id {} and {} books")
+                    .addArgument(authorDto::getId)
+                    .addArgument(() -> countBooks(authorDto))
+                    .log();
             return authorDto;
         } else {
             log.error("Author with name {} not found", name);
@@ -57,13 +106,17 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AuthorDto getByNameV2(String name) {
         log.info("Try to find author by name {} using SQL query", name);
         Optional<Author> author = authorRepository.findAuthorByNameBySql(name);
 
         if (author.isPresent()) {
             AuthorDto authorDto = convertEntityToDto(author.get());
-            log.info("Author: {}", authorDto.toString());
+            log.atInfo().setMessage("Found author with id {} and {} books")
+                    .addArgument(authorDto::getId)
+                    .addArgument(() -> countBooks(authorDto))
+                    .log();
             return authorDto;
         } else {
             log.error("Author with name {} not found", name);
@@ -72,6 +125,7 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AuthorDto getByNameV3(String name) {
         log.info("Try to find author by name using Specification: {}", name);
         Specification<Author> specification = Specification.where(new Specification<Author>() {
@@ -83,10 +137,15 @@ public class AuthorServiceImpl implements AuthorService {
             }
         });
 
-        Optional<Author> author = authorRepository.findOne(specification);
+        // книги и их жанры - тем же запросом, как у Author.detail
+        Optional<Author> author = authorRepository.findBy(specification,
+                query -> query.project("books", "books.genre").one());
         if (author.isPresent()) {
             AuthorDto authorDto = convertEntityToDto(author.get());
-            log.info("Author: {}", authorDto.toString());
+            log.atInfo().setMessage("Found author with id {} and {} books")
+                    .addArgument(authorDto::getId)
+                    .addArgument(() -> countBooks(authorDto))
+                    .log();
             return authorDto;
         } else {
             log.error("Author with name {} not found using Specification", name);
@@ -95,15 +154,22 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
+    @Transactional
     public AuthorDto createAuthor(AuthorCreateDto authorCreateDto) {
-        log.info("Try to create author using input data: {}", authorCreateDto.toString());
+        log.info("Try to create author using input data: {}", authorCreateDto);
         Author author = authorRepository.save(convertDtoToEntity(authorCreateDto));
+        changeFeedService.recordChanges(EntityType.AUTHOR, List.of(author.getId()));
         AuthorDto authorDto = convertEntityToDto(author);
-        log.info("New author created: {}", authorDto.toString());
+        log.info("New author created with id {}", authorDto.getId());
         return authorDto;
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.AUTHORS, key = "#authorUpdateDto.id"),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true) // в GenreDto есть имена авторов
+    })
+    @Transactional
     public AuthorDto updateAuthor(AuthorUpdateDto authorUpdateDto) {
         log.info("Try to update author with id: {}", authorUpdateDto.getId());
         Optional<Author> authorOptional = authorRepository.findById(authorUpdateDto.getId()); // authorOptional - для хранения результата поиска автора
@@ -114,8 +180,10 @@ public class AuthorServiceImpl implements AuthorService {
             author.setName(authorUpdateDto.getName());
             author.setSurname(authorUpdateDto.getSurname());
             Author savedAuthor = authorRepository.save(author);
+            genreRepository.refreshCatalogForAuthors(List.of(savedAuthor.getId())); // имя автора есть в витрине жанров
+            changeFeedService.recordChanges(EntityType.AUTHOR, List.of(savedAuthor.getId()));
             AuthorDto authorDto = convertEntityToDto(savedAuthor);
-            log.info("Author updated: {}", authorDto.toString());
+            log.info("Author with id {} updated", authorDto.getId());
             return authorDto;
         } else {
             log.error("Author with id {} not found", authorUpdateDto.getId());
@@ -124,12 +192,18 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.AUTHORS, key = "#id"),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true)
+    })
+    @Transactional
     public void deleteAuthor(Long id) {
         log.info("Try to delete author with id {}", id);
         Optional<Author> author = authorRepository.findById(id);
 
         if (author.isPresent()) {
             authorRepository.deleteById(id);
+            changeFeedService.recordChanges(EntityType.AUTHOR, List.of(id));
             log.info("Author with id {} is deleted successfully", id);
         } else {
             log.error("Author with id {} not found. There is nothing to delete", id);
@@ -138,9 +212,10 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AuthorDto> getAllAuthors() {
         log.info("Try to get all authors");
-        List<Author> authors = authorRepository.findAll();
+        List<AuthorDto> authors = RowsConverter.toAuthorDtos(authorRepository.findAllAuthorRows());
 
         if (authors.isEmpty()) {
             log.error("No authors found");
@@ -148,9 +223,169 @@ public class AuthorServiceImpl implements AuthorService {
             log.info("Found {} authors", authors.size());
         }
 
-        return authors.stream()
-                .map(this::convertEntityToDto) //делаем из листа сущностей лист дто
-                .collect(Collectors.toList());
+        return authors;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<AuthorDto> getAuthorsPage(String cursor, Integer size) {
+        Long afterId = CursorCodec.decode(cursor);
+        int pageSize = CursorCodec.resolvePageSize(size, defaultPageSize, maxPageSize);
+        log.info("Try to get authors page after id {} with size {}", afterId, pageSize);
+        // берем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<Author> authors = authorRepository.findPageAfter(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = authors.size() > pageSize;
+        List<AuthorDto> authorDtos = authors.stream()
+                .limit(pageSize)
+                .map(this::convertEntityToSummaryDto)
+                .toList();
+        String nextCursor = hasNext ? CursorCodec.encode(authorDtos.get(authorDtos.size() - 1).getId()) : null;
+        log.info("Found {} authors, has next page: {}", authorDtos.size(), hasNext);
+        return CursorPageDto.<AuthorDto>builder()
+                .items(authorDtos)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllAuthors(Consumer<AuthorDto> consumer) {
+        log.info("Try to stream all authors");
+        try (Stream<Author> authors = authorRepository.streamAll()) {
+            authors.forEach(author -> {
+                consumer.accept(convertEntityToSummaryDto(author));
+                entityManager.detach(author); // не копим прочитанных авторов в persistence context
+            });
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<BatchItemResultDto<AuthorDto>> createAuthors(List<AuthorCreateDto> authorCreateDtos) {
+        log.info("Try to create {} authors in batch", authorCreateDtos.size());
+        BatchSupport.checkSize(authorCreateDtos, maxBatchSize);
+
+        List<BatchItemResultDto<AuthorDto>> results = new ArrayList<>(authorCreateDtos.size());
+        Map<Integer, Author> authors = new LinkedHashMap<>(); // индекс во входных данных -> новый автор
+        for (int i = 0; i < authorCreateDtos.size(); i++) {
+            AuthorCreateDto authorCreateDto = authorCreateDtos.get(i);
+            String error = BatchSupport.describe(validator.validate(authorCreateDto));
+            if (error != null) {
+                results.add(BatchItemResultDto.error(i, error));
+            } else {
+                authors.put(i, convertDtoToEntity(authorCreateDto));
+                results.add(null); // заполним после сохранения
+            }
+        }
+
+        authorRepository.saveAll(authors.values()); // сами insert'ы уходят пачками при коммите
+        changeFeedService.recordChanges(EntityType.AUTHOR, authors.values().stream().map(Author::getId).toList());
+        authors.forEach((i, author) -> results.set(i, BatchItemResultDto.success(i, convertEntityToSummaryDto(author))));
+        log.info("Created {} of {} authors", authors.size(), authorCreateDtos.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.AUTHORS, allEntries = true),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true)
+    })
+    public List<BatchItemResultDto<AuthorDto>> updateAuthors(List<AuthorUpdateDto> authorUpdateDtos) {
+        log.info("Try to update {} authors in batch", authorUpdateDtos.size());
+        BatchSupport.checkSize(authorUpdateDtos, maxBatchSize);
+        Map<Long, Author> authors = findAllByIds(authorUpdateDtos.stream().map(AuthorUpdateDto::getId).toList());
+
+        List<BatchItemResultDto<AuthorDto>> results = new ArrayList<>(authorUpdateDtos.size());
+        for (int i = 0; i < authorUpdateDtos.size(); i++) {
+            AuthorUpdateDto authorUpdateDto = authorUpdateDtos.get(i);
+            String error = BatchSupport.describe(validator.validate(authorUpdateDto));
+            Author author = authorUpdateDto.getId() == null ? null : authors.get(authorUpdateDto.getId());
+            if (error == null && author == null) {
+                error = "Author with id " + authorUpdateDto.getId() + " not found";
+            }
+            if (error != null) {
+                results.add(BatchItemResultDto.error(i, error));
+            } else {
+                // изменения сохранятся при коммите через dirty checking, update'ы тоже уходят пачками
+                author.setName(authorUpdateDto.getName());
+                author.setSurname(authorUpdateDto.getSurname());
+                results.add(BatchItemResultDto.success(i, convertEntityToSummaryDto(author)));
+            }
+        }
+        List<Long> updatedIds = results.stream()
+                .filter(BatchItemResultDto::isSuccess)
+                .map(result -> result.getResult().getId())
+                .toList();
+        if (!updatedIds.isEmpty()) {
+            genreRepository.refreshCatalogForAuthors(updatedIds);
+            changeFeedService.recordChanges(EntityType.AUTHOR, updatedIds);
+        }
+        log.info("Updated {} of {} authors", updatedIds.size(), authorUpdateDtos.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.AUTHORS, allEntries = true),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true)
+    })
+    public List<BatchItemResultDto<Long>> deleteAuthors(List<Long> ids) {
+        log.info("Try to delete {} authors in batch", ids.size());
+        BatchSupport.checkSize(ids, maxBatchSize);
+        Map<Long, Author> authors = findAllByIds(ids);
+
+        List<BatchItemResultDto<Long>> results = new ArrayList<>(ids.size());
+        Set<Author> toDelete = new LinkedHashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Author author = authors.get(ids.get(i));
+            if (author == null) {
+                results.add(BatchItemResultDto.error(i, "Author with id " + ids.get(i) + " not found"));
+            } else if (author.getBooks() != null && !author.getBooks().isEmpty()) {
+                // связи author_book принадлежат книге, автора с книгами удалить нельзя
+                results.add(BatchItemResultDto.error(i, "Author with id " + ids.get(i) + " has books"));
+            } else {
+                toDelete.add(author);
+                results.add(BatchItemResultDto.success(i, author.getId()));
+            }
+        }
+        authorRepository.deleteAll(toDelete);
+        changeFeedService.recordChanges(EntityType.AUTHOR, toDelete.stream().map(Author::getId).toList());
+        log.info("Deleted {} of {} authors", toDelete.size(), ids.size());
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionRow> getAuthorVersion(Long id) {
+        return authorRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionRow getAuthorsCatalogVersion() {
+        return authorRepository.findCatalogVersion();
+    }
+
+    private Map<Long, Author> findAllByIds(List<Long> ids) {
+        return authorRepository.findAllById(ids.stream().filter(Objects::nonNull).toList())
+                .stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+    }
+
+    // в лог пишем только число книг, а не весь список
+    private static int countBooks(AuthorDto authorDto) {
+        return authorDto.getBooks() == null ? 0 : authorDto.getBooks().size();
+    }
+
+    // без списка книг - для каталога, чтобы не подгружать книги каждого автора
+    private AuthorDto convertEntityToSummaryDto(Author author) {
+        return AuthorDto.builder()
+                .id(author.getId())
+                .name(author.getName())
+                .surname(author.getSurname())
+                .build();
     }
 
     private AuthorDto convertEntityToDto(Author author) { //convertEntityToDto
@@ -1,26 +1,52 @@
 package ru.itgirl.library_project.service.impl;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.config.CacheConfig;
+import ru.itgirl.library_project.dto.BatchItemResultDto;
 import ru.itgirl.library_project.dto.BookCreateDto;
 import ru.itgirl.library_project.dto.BookDto;
 import ru.itgirl.library_project.dto.BookUpdateDto;
+import ru.itgirl.library_project.dto.ChangeEventDto.EntityType;
+import ru.itgirl.library_project.dto.CursorPageDto;
 import ru.itgirl.library_project.model.Book;
 import ru.itgirl.library_project.model.Genre;
 import ru.itgirl.library_project.repository.BookRepository;
 import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.repository.projection.VersionRow;
 import ru.itgirl.library_project.service.BookService;
+import ru.itgirl.library_project.service.ChangeFeedService;
+import ru.itgirl.library_project.util.BatchSupport;
+import ru.itgirl.library_project.util.CursorCodec;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,14 +55,28 @@ public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
     private final GenreRepository genreRepository;
+    private final ChangeFeedService changeFeedService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+
+    @Value("${library.catalog.page-size.default:50}")
+    private int defaultPageSize;
+
+    @Value("${library.catalog.page-size.max:1000}")
+    private int maxPageSize;
+
+    @Value("${library.batch.max-size:10000}")
+    private int maxBatchSize;
 
     @Override
+    @Cacheable(value = CacheConfig.BOOKS_BY_NAME, key = "#name")
+    @Transactional(readOnly = true)
     public BookDto getByNameV1(String name) {
         log.info("Try to find book by name {}", name);
-        Optional<Book> book = bookRepository.findBookByName(name);
+        Optional<BookDto> book = bookRepository.findBookDtoByName(name);
         if (book.isPresent()) {
-            BookDto bookDto = convertEntityToDto(book.get());
-            log.info("Book: {}", bookDto.toString());
+            BookDto bookDto = book.get();
+            log.info("Found book with id {}", bookDto.getId());
             return bookDto;
         } else {
             log.error("Book with name '{}' not found", name);
@@ -45,13 +85,14 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookDto getByNameV2(String name) {
         log.info("Try to find book by name {} using SQL query", name);
         Optional<Book> book = bookRepository.findBookByNameBySql(name);
 
         if (book.isPresent()) {
             BookDto bookDto = convertEntityToDto(book.get());
-            log.info("Book: {}", bookDto.toString());
+            log.info("Found book with id {}", bookDto.getId());
             return bookDto;
         } else {
             log.error("Book with name '{}' not found", name);
@@ -60,6 +101,7 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookDto getByNameV3(String name) {
         log.info("Try to find book by name using Specification: {}", name);
         Specification<Book> specification = Specification.where(new Specification<Book>() {
@@ -73,7 +115,7 @@ public class BookServiceImpl implements BookService {
         Optional<Book> book = bookRepository.findOne(specification);
         if (book.isPresent()) {
             BookDto bookDto = convertEntityToDto(book.get());
-            log.info("Book: {}", bookDto.toString());
+            log.info("Found book with id {}", bookDto.getId());
             return bookDto;
         } else {
             log.error("Book with name '{}' not found using Specification", name);
@@ -82,15 +124,29 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.BOOKS_BY_NAME, key = "#bookCreateDto.name"),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true) // в GenreDto есть список книг
+    })
+    @Transactional
     public BookDto createBook(BookCreateDto bookCreateDto) {
-        log.info("Try to create book using input data: {}", bookCreateDto.toString());
+        log.info("Try to create book using input data: {}", bookCreateDto);
         Book book = bookRepository.save(convertDtoToEntity(bookCreateDto));
+        genreRepository.refreshCatalogForBooks(List.of(book.getId())); // витрина жанра в той же транзакции
+        changeFeedService.recordChanges(EntityType.BOOK, List.of(book.getId()));
         BookDto bookDto = convertEntityToDto(book);
-        log.info("New book created: {}", bookDto.toString());
+        log.info("New book created with id {}", bookDto.getId());
         return bookDto;
     }
 
+    // старое название книги здесь неизвестно, а книга есть и в AuthorDto, и в GenreDto - сбрасываем кэши целиком
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.BOOKS_BY_NAME, allEntries = true),
+            @CacheEvict(value = CacheConfig.AUTHORS, allEntries = true),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true)
+    })
+    @Transactional
     public BookDto updateBook(BookUpdateDto bookUpdateDto) {
         log.info("Try to update book with id: {}", bookUpdateDto.getId());
         Optional<Book> bookOptional = bookRepository.findById(bookUpdateDto.getId()); // bookOptional - для хранения результата поиска книги
@@ -101,8 +157,10 @@ public class BookServiceImpl implements BookService {
             book.setName(bookUpdateDto.getName());
             book.setGenre(genre);
             Book savedBook = bookRepository.save(book);
+            genreRepository.refreshCatalogForBooks(List.of(savedBook.getId()));
+            changeFeedService.recordChanges(EntityType.BOOK, List.of(savedBook.getId()));
             BookDto bookDto = convertEntityToDto(savedBook);
-            log.info("Book updated: {}", bookDto.toString());
+            log.info("Book with id {} updated", bookDto.getId());
             return bookDto;
         } else {
             log.error("Book with id {} not found", bookUpdateDto.getId());
@@ -111,12 +169,19 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.BOOKS_BY_NAME, allEntries = true),
+            @CacheEvict(value = CacheConfig.AUTHORS, allEntries = true),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true)
+    })
+    @Transactional
     public void deleteBook(Long id) {
         log.info("Try to delete book with id {}", id);
         Optional<Book> book = bookRepository.findById(id);
 
         if (book.isPresent()) {
             bookRepository.deleteById(id);
+            changeFeedService.recordChanges(EntityType.BOOK, List.of(id));
             log.info("Book with id {} is deleted successfully", id);
         } else {
             log.error("Book with id {} not found. There is nothing to delete", id);
@@ -125,9 +190,10 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookDto> getAllBooks() {
         log.info("Try to get all books");
-        List<Book> books = bookRepository.findAll();
+        List<BookDto> books = bookRepository.findAllBookDtos(); // сразу DTO, без сущностей
 
         if (books.isEmpty()) {
             log.error("No books found");
@@ -135,11 +201,185 @@ public class BookServiceImpl implements BookService {
             log.info("Found {} books", books.size());
         }
 
-        return books.stream()
-                .map(this::convertEntityToDto) // делаем из листа сущностей лист DTO
-                .collect(Collectors.toList());
+        return books;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDto> getBooksPage(String cursor, Integer size) {
+        Long afterId = CursorCodec.decode(cursor);
+        int pageSize = CursorCodec.resolvePageSize(size, defaultPageSize, maxPageSize);
+        log.info("Try to get books page after id {} with size {}", afterId, pageSize);
+        // берем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<Book> books = bookRepository.findPageAfter(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = books.size() > pageSize;
+        List<BookDto> bookDtos = books.stream()
+                .limit(pageSize)
+                .map(this::convertEntityToDto)
+                .toList();
+        String nextCursor = hasNext ? CursorCodec.encode(bookDtos.get(bookDtos.size() - 1).getId()) : null;
+        log.info("Found {} books, has next page: {}", bookDtos.size(), hasNext);
+        return CursorPageDto.<BookDto>builder()
+                .items(bookDtos)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<BookDto> consumer) {
+        log.info("Try to stream all books");
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            books.forEach(book -> {
+                consumer.accept(convertEntityToDto(book));
+                entityManager.detach(book); // не копим прочитанные книги в persistence context
+            });
+        }
     }
-    
+
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.BOOKS_BY_NAME, allEntries = true),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true)
+    })
+    public List<BatchItemResultDto<BookDto>> createBooks(List<BookCreateDto> bookCreateDtos) {
+        log.info("Try to create {} books in batch", bookCreateDtos.size());
+        BatchSupport.checkSize(bookCreateDtos, maxBatchSize);
+        Map<String, Genre> genres = findGenres(bookCreateDtos.stream().map(BookCreateDto::getGenre).toList());
+
+        List<BatchItemResultDto<BookDto>> results = new ArrayList<>(bookCreateDtos.size());
+        Map<Integer, Book> books = new LinkedHashMap<>(); // индекс во входных данных -> новая книга
+        for (int i = 0; i < bookCreateDtos.size(); i++) {
+            BookCreateDto bookCreateDto = bookCreateDtos.get(i);
+            String error = BatchSupport.describe(validator.validate(bookCreateDto));
+            Genre genre = error == null ? genres.get(bookCreateDto.getGenre()) : null;
+            if (error == null && genre == null) {
+                error = "Genre '" + bookCreateDto.getGenre() + "' not found";
+            }
+            if (error != null) {
+                results.add(BatchItemResultDto.error(i, error));
+            } else {
+                books.put(i, Book.builder().name(bookCreateDto.getName()).genre(genre).build());
+                results.add(null); // заполним после сохранения
+            }
+        }
+
+        bookRepository.saveAll(books.values()); // сами insert'ы уходят пачками при коммите
+        if (!books.isEmpty()) {
+            List<Long> createdIds = books.values().stream().map(Book::getId).toList();
+            genreRepository.refreshCatalogForBooks(createdIds);
+            changeFeedService.recordChanges(EntityType.BOOK, createdIds);
+        }
+        books.forEach((i, book) -> results.set(i, BatchItemResultDto.success(i, convertEntityToDto(book))));
+        log.info("Created {} of {} books", books.size(), bookCreateDtos.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.BOOKS_BY_NAME, allEntries = true),
+            @CacheEvict(value = CacheConfig.AUTHORS, allEntries = true),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true)
+    })
+    public List<BatchItemResultDto<BookDto>> updateBooks(List<BookUpdateDto> bookUpdateDtos) {
+        log.info("Try to update {} books in batch", bookUpdateDtos.size());
+        BatchSupport.checkSize(bookUpdateDtos, maxBatchSize);
+        Map<String, Genre> genres = findGenres(bookUpdateDtos.stream().map(BookUpdateDto::getGenre).toList());
+        Map<Long, Book> books = bookRepository.findAllById(bookUpdateDtos.stream()
+                        .map(BookUpdateDto::getId)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        List<BatchItemResultDto<BookDto>> results = new ArrayList<>(bookUpdateDtos.size());
+        for (int i = 0; i < bookUpdateDtos.size(); i++) {
+            BookUpdateDto bookUpdateDto = bookUpdateDtos.get(i);
+            String error = BatchSupport.describe(validator.validate(bookUpdateDto));
+            Book book = bookUpdateDto.getId() == null ? null : books.get(bookUpdateDto.getId());
+            Genre genre = genres.get(bookUpdateDto.getGenre());
+            if (error == null && book == null) {
+                error = "Book with id " + bookUpdateDto.getId() + " not found";
+            } else if (error == null && genre == null) {
+                error = "Genre '" + bookUpdateDto.getGenre() + "' not found";
+            }
+            if (error != null) {
+                results.add(BatchItemResultDto.error(i, error));
+            } else {
+                // изменения сохранятся при коммите через dirty checking, update'ы тоже уходят пачками
+                book.setName(bookUpdateDto.getName());
+                book.setGenre(genre);
+                results.add(BatchItemResultDto.success(i, convertEntityToDto(book)));
+            }
+        }
+        List<Long> updatedIds = results.stream()
+                .filter(BatchItemResultDto::isSuccess)
+                .map(result -> result.getResult().getId())
+                .toList();
+        if (!updatedIds.isEmpty()) {
+            genreRepository.refreshCatalogForBooks(updatedIds);
+            changeFeedService.recordChanges(EntityType.BOOK, updatedIds);
+        }
+        log.info("Updated {} of {} books", updatedIds.size(), bookUpdateDtos.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.BOOKS_BY_NAME, allEntries = true),
+            @CacheEvict(value = CacheConfig.AUTHORS, allEntries = true),
+            @CacheEvict(value = CacheConfig.GENRES, allEntries = true)
+    })
+    public List<BatchItemResultDto<Long>> deleteBooks(List<Long> ids) {
+        log.info("Try to delete {} books in batch", ids.size());
+        BatchSupport.checkSize(ids, maxBatchSize);
+        Map<Long, Book> books = bookRepository.findAllById(ids.stream().filter(Objects::nonNull).toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        List<BatchItemResultDto<Long>> results = new ArrayList<>(ids.size());
+        Set<Book> toDelete = new LinkedHashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Book book = books.get(ids.get(i));
+            if (book == null) {
+                results.add(BatchItemResultDto.error(i, "Book with id " + ids.get(i) + " not found"));
+            } else {
+                toDelete.add(book);
+                results.add(BatchItemResultDto.success(i, book.getId()));
+            }
+        }
+        bookRepository.deleteAll(toDelete);
+        changeFeedService.recordChanges(EntityType.BOOK, toDelete.stream().map(Book::getId).toList());
+        log.info("Deleted {} of {} books", toDelete.size(), ids.size());
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionRow> getBookVersionByName(String name) {
+        return bookRepository.findVersionByName(name);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionRow getBooksCatalogVersion() {
+        return bookRepository.findCatalogVersion();
+    }
+
+    // жанры для всей пачки одним запросом, а не findByName на каждую книгу
+    private Map<String, Genre> findGenres(List<String> names) {
+        Set<String> distinctNames = names.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (distinctNames.isEmpty()) {
+            return new HashMap<>();
+        }
+        return genreRepository.findByNameIn(distinctNames)
+                .stream()
+                .collect(Collectors.toMap(Genre::getName, Function.identity(), (first, second) -> first));
+    }
+
     private BookDto convertEntityToDto(Book book) {
         return BookDto.builder()
                 .id(book.getId())
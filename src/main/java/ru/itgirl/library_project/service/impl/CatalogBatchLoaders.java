@@ -0,0 +1,39 @@
+package ru.itgirl.library_project.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.util.BatchLoader;
+
+// Загрузчики авторов, книг и жанров по id - свои на каждый HTTP-запрос: отдельные обращения по id внутри запроса
+// собираются в один запрос WHERE id IN (...) на тип, а уже загруженное повторно не читается
+@Component
+@RequestScope
+public class CatalogBatchLoaders {
+
+    private final BatchLoader<Long, AuthorDto> authors;
+    private final BatchLoader<Long, BookDto> books;
+    private final BatchLoader<Long, GenreDto> genres;
+
+    public CatalogBatchLoaders(CatalogBatchQueries queries,
+                               @Value("${library.lookup.max-batch-size:1000}") int maxBatchSize) {
+        this.authors = new BatchLoader<>(queries::loadAuthors, maxBatchSize);
+        this.books = new BatchLoader<>(queries::loadBooks, maxBatchSize);
+        this.genres = new BatchLoader<>(queries::loadGenres, maxBatchSize);
+    }
+
+    public BatchLoader<Long, AuthorDto> authors() {
+        return authors;
+    }
+
+    public BatchLoader<Long, BookDto> books() {
+        return books;
+    }
+
+    public BatchLoader<Long, GenreDto> genres() {
+        return genres;
+    }
+}
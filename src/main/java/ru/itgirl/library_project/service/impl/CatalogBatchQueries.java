@@ -0,0 +1,64 @@
+package ru.itgirl.library_project.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.BookRepository;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.repository.projection.GenreCatalogRow;
+import ru.itgirl.library_project.util.RowsConverter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Чтение авторов, книг и жанров по набору id одним запросом WHERE id IN (...) на тип - для загрузчиков BatchLoader.
+// Формы DTO - те же, что у getAuthorById и getGenreById; книга - с жанром и авторами
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogBatchQueries {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final GenreRepository genreRepository;
+
+    public Map<Long, AuthorDto> loadAuthors(Collection<Long> ids) {
+        log.debug("Load {} authors in one query", ids.size());
+        return RowsConverter.toAuthorDtos(authorRepository.findAuthorRowsByIdIn(ids)).stream()
+                .collect(Collectors.toMap(AuthorDto::getId, Function.identity()));
+    }
+
+    public Map<Long, BookDto> loadBooks(Collection<Long> ids) {
+        log.debug("Load {} books in one query", ids.size());
+        Map<Long, BookDto> books = new HashMap<>();
+        for (GenreCatalogRow row : bookRepository.findCatalogRowsByIdIn(ids)) {
+            BookDto bookDto = RowsConverter.toBookDtoWithGenre(row);
+            books.put(bookDto.getId(), bookDto);
+        }
+        return books;
+    }
+
+    public Map<Long, GenreDto> loadGenres(Collection<Long> ids) {
+        log.debug("Load {} genres in one query", ids.size());
+        Map<Long, GenreDto> genres = new HashMap<>();
+        for (GenreCatalogRow row : genreRepository.findCatalogRowsByIdIn(ids)) {
+            GenreDto genreDto = genres.computeIfAbsent(row.getGenreId(), id -> GenreDto.builder()
+                    .id(id)
+                    .name(row.getGenreName())
+                    .books(new ArrayList<>())
+                    .build());
+            if (row.getBookId() != null) { // жанр без книг
+                genreDto.getBooks().add(RowsConverter.toBookDto(row));
+            }
+        }
+        return genres;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.itgirl.library_project.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.util.BatchLoader;
+
+import java.time.Duration;
+
+// Загрузчики авторов и жанров по id, общие для всех HTTP-запросов: одиночные GET /author/{id} и /genre/{id},
+// пришедшие в пределах окна window, читаются одним запросом WHERE id IN (...).
+// Запросы выполняются в потоках своего планировщика, а не общего планировщика @Scheduled (реле outbox, реплика).
+// Планировщик не объявлен бином: иначе Spring Boot не создал бы свой для @Scheduled
+@Component
+public class CatalogCoalescingLoaders {
+
+    private final ThreadPoolTaskScheduler scheduler;
+    private final BatchLoader<Long, AuthorDto> authors;
+    private final BatchLoader<Long, GenreDto> genres;
+
+    public CatalogCoalescingLoaders(CatalogBatchQueries queries,
+                                    @Value("${library.lookup.window:2ms}") Duration window,
+                                    @Value("${library.lookup.max-batch-size:1000}") int maxBatchSize,
+                                    @Value("${library.lookup.threads:2}") int threads) {
+        this.scheduler = new ThreadPoolTaskScheduler();
+        this.scheduler.setPoolSize(threads);
+        this.scheduler.setThreadNamePrefix("lookup-");
+        this.scheduler.initialize();
+        this.authors = new BatchLoader<>(queries::loadAuthors, maxBatchSize, window, scheduler);
+        this.genres = new BatchLoader<>(queries::loadGenres, maxBatchSize, window, scheduler);
+    }
+
+    public BatchLoader<Long, AuthorDto> authors() {
+        return authors;
+    }
+
+    public BatchLoader<Long, GenreDto> genres() {
+        return genres;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,153 @@
+package ru.itgirl.library_project.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.BookRepository;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.repository.projection.AuthorNode;
+import ru.itgirl.library_project.repository.projection.BookNode;
+import ru.itgirl.library_project.repository.projection.GenreNode;
+import ru.itgirl.library_project.service.CatalogGraphService;
+import ru.itgirl.library_project.util.CursorCodec;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogGraphServiceImpl implements CatalogGraphService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final GenreRepository genreRepository;
+
+    @Value("${library.catalog.page-size.default:50}")
+    private int defaultPageSize;
+
+    @Value("${library.catalog.page-size.max:1000}")
+    private int maxPageSize;
+
+    @Value("${library.graphql.list-size:10}")
+    private int listSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookNode> getBooksByIds(List<Long> ids) {
+        log.info("Try to find {} books by ids for GraphQL", ids.size());
+        return inOrder(ids, bookRepository.findBookNodesByIdIn(ids), BookNode::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookNode> getBooksPage(String cursor, Integer size) {
+        Long afterId = CursorCodec.decode(cursor);
+        int pageSize = CursorCodec.resolvePageSize(size, defaultPageSize, maxPageSize);
+        log.info("Try to get books page after id {} with size {} for GraphQL", afterId, pageSize);
+        // берем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<BookNode> books = bookRepository.findBookNodePageAfter(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = books.size() > pageSize;
+        List<BookNode> items = hasNext ? books.subList(0, pageSize) : books;
+        return CursorPageDto.<BookNode>builder()
+                .items(items)
+                .nextCursor(hasNext ? CursorCodec.encode(items.get(items.size() - 1).getId()) : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorNode> getAuthorsByIds(List<Long> ids) {
+        log.info("Try to find {} authors by ids for GraphQL", ids.size());
+        return inOrder(ids, authorRepository.findAuthorNodesByIdIn(ids), AuthorNode::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GenreNode> getGenresByIds(List<Long> ids) {
+        log.info("Try to find {} genres by ids for GraphQL", ids.size());
+        return inOrder(ids, genreRepository.findGenreNodesByIdIn(ids), GenreNode::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GenreNode> getAllGenres() {
+        log.info("Try to get all genres for GraphQL");
+        return genreRepository.findAllGenreNodes();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GenreNode> getGenresOfBooks(List<BookNode> books) {
+        List<Long> genreIds = books.stream().map(BookNode::getGenreId).toList();
+        log.debug("Load genres of {} books", books.size());
+        return inOrder(genreIds, genreRepository.findGenreNodesByIdIn(genreIds), GenreNode::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<List<AuthorNode>> getAuthorsOfBooks(List<BookNode> books) {
+        List<Long> bookIds = books.stream().map(BookNode::getId).toList();
+        log.debug("Load authors of {} books", books.size());
+        return byParent(bookIds, authorRepository.findAuthorNodesByBookIdIn(bookIds), AuthorNode::getParentId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<RelationPage, List<BookNode>> getBooksOfAuthors(Collection<RelationPage> pages) {
+        log.debug("Load books of {} authors", pages.size());
+        return byPage(pages, bookRepository::findBookNodesByAuthorIdIn);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<RelationPage, List<BookNode>> getBooksOfGenres(Collection<RelationPage> pages) {
+        log.debug("Load books of {} genres", pages.size());
+        return byPage(pages, bookRepository::findBookNodesByGenreIdIn);
+    }
+
+    // один запрос на каждое сочетание cursor и first - обычно на уровне оно одно
+    private Map<RelationPage, List<BookNode>> byPage(Collection<RelationPage> pages, PageQuery query) {
+        Map<RelationPage, List<BookNode>> result = new HashMap<>();
+        pages.stream()
+                .collect(Collectors.groupingBy(page -> new PageArguments(CursorCodec.decode(page.cursor()),
+                        CursorCodec.resolvePageSize(page.first(), listSize, maxPageSize))))
+                .forEach((arguments, group) -> {
+                    List<Long> parentIds = group.stream().map(RelationPage::parentId).toList();
+                    List<BookNode> books = query.find(parentIds, arguments.afterId(), arguments.limit());
+                    List<List<BookNode>> byParent = byParent(parentIds, books, BookNode::getParentId);
+                    for (int i = 0; i < group.size(); i++) {
+                        result.put(group.get(i), byParent.get(i));
+                    }
+                });
+        return result;
+    }
+
+    private record PageArguments(Long afterId, int limit) {
+    }
+
+    private interface PageQuery {
+        List<BookNode> find(Collection<Long> parentIds, Long afterId, int limit);
+    }
+
+    // строки в порядке ids; повторный id получает ту же строку, ненайденный - null
+    private static <T> List<T> inOrder(List<Long> ids, Collection<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = rows.stream().collect(Collectors.toMap(idOf, Function.identity(), (first, second) -> first));
+        return ids.stream().map(byId::get).toList();
+    }
+
+    // строки сгруппированы по родителю, порядок внутри группы - как в запросе; у родителя без строк - пустой список
+    private static <T> List<List<T>> byParent(List<Long> parentIds, Collection<T> rows, Function<T, Long> parentOf) {
+        Map<Long, List<T>> byParent = rows.stream().collect(Collectors.groupingBy(parentOf));
+        return parentIds.stream().map(id -> byParent.getOrDefault(id, List.of())).toList();
+    }
+}
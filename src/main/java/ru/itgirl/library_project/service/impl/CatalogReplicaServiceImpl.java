@@ -0,0 +1,214 @@
+package ru.itgirl.library_project.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CatalogReplicaStatsDto;
+import ru.itgirl.library_project.dto.ChangeEventDto;
+import ru.itgirl.library_project.repository.CatalogReplicaRepository;
+import ru.itgirl.library_project.service.CatalogReplicaService;
+import ru.itgirl.library_project.service.ChangeEventSink;
+import ru.itgirl.library_project.util.CatalogChanges;
+import ru.itgirl.library_project.util.CatalogSnapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+// Реплика каталога в памяти: чтения идут в неизменяемый снимок без базы и без сущностей.
+// Снимок загружается при старте, а записи сервисов применяются к нему изменениями: реплика - получатель событий
+// outbox (library.changes.enabled), событие уже несет состояние записи, база не читается, снимок не копируется.
+// Полная перезагрузка (секунды и второй снимок в памяти на время замены) - только как страховка и не чаще
+// min-reload-interval: если изменилась версия каталога в table_version (ее повышают триггеры при любой записи,
+// в том числе мимо сервисов и в других экземплярах приложения, чьи события сюда не приходят) или если изменений
+// накопилось больше max-changes. Каталог больше max-rows строк не загружается: остается прежний снимок
+@Service
+@ConditionalOnProperty(name = "library.replica.enabled", havingValue = "true")
+@Slf4j
+public class CatalogReplicaServiceImpl implements CatalogReplicaService, ChangeEventSink {
+
+    // снимок и изменения поверх него меняются вместе
+    private record State(CatalogSnapshot snapshot, CatalogChanges changes) {
+    }
+
+    private final CatalogReplicaRepository replicaRepository;
+
+    @Value("${library.replica.min-reload-interval:5m}")
+    private Duration minReloadInterval;
+
+    @Value("${library.replica.max-changes:100000}")
+    private int maxChanges;
+
+    @Value("${library.replica.max-rows:5000000}")
+    private long maxRows;
+
+    private volatile State state = new State(CatalogSnapshot.EMPTY, CatalogChanges.EMPTY);
+    private volatile Instant loadedAt;
+    private volatile long loadMillis;
+    // с начала последней попытки: неудачная загрузка (база недоступна, каталог больше max-rows) тоже не повторяется чаще
+    private volatile Instant reloadStartedAt;
+    // изменения сброшены из-за max-changes - реплика отстает до следующей полной перезагрузки
+    private volatile boolean reloadRequired;
+    // загрузка снимка идет секунды и читает базу: монитор (synchronized) держал бы несущий поток виртуального
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    // применение изменений и замена снимка; загрузка снимка идет без него, события relay ее не ждут
+    private final ReentrantLock changesLock = new ReentrantLock();
+
+    public CatalogReplicaServiceImpl(CatalogReplicaRepository replicaRepository, MeterRegistry meterRegistry) {
+        this.replicaRepository = replicaRepository;
+        // размер реплики: /actuator/metrics/library.replica.bytes, library.replica.rows{table}
+        // и library.replica.changes - записи, измененные после загрузки снимка
+        Gauge.builder("library.replica.bytes", this, service -> service.state.snapshot().getEstimatedBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("library.replica.changes", this, service -> service.state.changes().size())
+                .register(meterRegistry);
+        registerRows(meterRegistry, "genre", CatalogSnapshot::getGenreCount);
+        registerRows(meterRegistry, "author", CatalogSnapshot::getAuthorCount);
+        registerRows(meterRegistry, "book", CatalogSnapshot::getBookCount);
+        registerRows(meterRegistry, "author_book", CatalogSnapshot::getRelationCount);
+    }
+
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        log.info("Try to find book by id {} in replica", id);
+        State current = state;
+        BookDto bookDto = current.changes().getBook(current.snapshot(), id);
+        if (bookDto == null) {
+            log.error("Book with id {} not found in replica", id);
+            throw new NoSuchElementException("No value present");
+        }
+        return bookDto;
+    }
+
+    @Override
+    public AuthorDto getAuthorById(Long id) {
+        log.info("Try to find author by id {} in replica", id);
+        State current = state;
+        AuthorDto authorDto = current.changes().getAuthor(current.snapshot(), id);
+        if (authorDto == null) {
+            log.error("Author with id {} not found in replica", id);
+            throw new NoSuchElementException("No value present");
+        }
+        return authorDto;
+    }
+
+    @Override
+    public CatalogReplicaStatsDto getStats() {
+        State replica = state;
+        CatalogSnapshot current = replica.snapshot();
+        return CatalogReplicaStatsDto.builder()
+                .version(current.getVersion())
+                .genres(current.getGenreCount())
+                .authors(current.getAuthorCount())
+                .books(current.getBookCount())
+                .relations(current.getRelationCount())
+                .estimatedBytes(current.getEstimatedBytes())
+                .loadedAt(loadedAt)
+                .loadMillis(loadMillis)
+                .changes(replica.changes().size())
+                .build();
+    }
+
+    // события одной пачки relay применяются вместе: изменения копируются один раз на пачку, а не на событие
+    @Override
+    public void publish(List<ChangeEventDto> events) {
+        changesLock.lock();
+        try {
+            State current = state;
+            CatalogChanges changes = current.changes().apply(current.snapshot(), events);
+            if (changes.size() > maxChanges) {
+                // память под изменения ограничена: сбрасываем их, до полной перезагрузки реплика отстает
+                log.warn("Catalog replica has more than {} changed rows, it is stale until the next reload", maxChanges);
+                changes = changes.after(Long.MAX_VALUE);
+                reloadRequired = true;
+            }
+            state = new State(current.snapshot(), changes);
+        } finally {
+            changesLock.unlock();
+        }
+    }
+
+    // проверка версии - один короткий запрос; перечитываем каталог, только если он изменился
+    // или изменения были сброшены, и не чаще min-reload-interval
+    @Override
+    @Scheduled(fixedDelayString = "${library.replica.refresh-interval}",
+            initialDelayString = "${library.replica.refresh-interval}")
+    public void refreshIfChanged() {
+        if (reloadStartedAt != null && Duration.between(reloadStartedAt, Instant.now()).compareTo(minReloadInterval) < 0) {
+            return;
+        }
+        try {
+            if (reloadRequired || replicaRepository.findCatalogVersion() != state.snapshot().getVersion()) {
+                refresh();
+            }
+        } catch (RuntimeException e) {
+            // база недоступна - продолжаем отвечать из прежнего снимка
+            log.error("Failed to check catalog version for replica", e);
+        }
+    }
+
+    @Override
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            log.info("Try to load catalog replica");
+            reloadStartedAt = Instant.now();
+            long start = System.nanoTime();
+            // события до начала загрузки несут состояние, прочитанное раньше снимка, - они в нем уже есть
+            long loadedSequence;
+            boolean required;
+            changesLock.lock();
+            try {
+                loadedSequence = state.changes().getLastSequence();
+                required = reloadRequired;
+                reloadRequired = false;
+            } finally {
+                changesLock.unlock();
+            }
+            CatalogSnapshot loaded;
+            try {
+                loaded = replicaRepository.load(maxRows);
+            } catch (RuntimeException e) {
+                if (required) {
+                    reloadRequired = true;
+                }
+                throw e;
+            }
+            changesLock.lock();
+            try {
+                state = new State(loaded, state.changes().after(loadedSequence));
+            } finally {
+                changesLock.unlock();
+            }
+            loadMillis = (System.nanoTime() - start) / 1_000_000;
+            loadedAt = Instant.now();
+            log.info("Loaded catalog replica version {}: {} books, {} authors, {} genres, {} relations, ~{} KB in {} ms",
+                    loaded.getVersion(), loaded.getBookCount(), loaded.getAuthorCount(), loaded.getGenreCount(),
+                    loaded.getRelationCount(), loaded.getEstimatedBytes() / 1024, loadMillis);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void registerRows(MeterRegistry meterRegistry, String table, ToDoubleFunction<CatalogSnapshot> rows) {
+        Gauge.builder("library.replica.rows", this, service -> rows.applyAsDouble(service.state.snapshot()))
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,183 @@
+package ru.itgirl.library_project.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itgirl.library_project.dto.ChangeEventDto;
+import ru.itgirl.library_project.dto.ChangeEventDto.EntityType;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.BookRepository;
+import ru.itgirl.library_project.repository.ChangeOutboxRepository;
+import ru.itgirl.library_project.repository.ChangeOutboxRepository.OutboxRow;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.service.ChangeEventSink;
+import ru.itgirl.library_project.service.ChangeFeedService;
+import ru.itgirl.library_project.util.RowsConverter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Outbox изменений каталога. Методы записи сервисов отмечают id измененных записей в change_outbox в своей транзакции,
+// а relay раз в relay-interval забирает строки пачками, сжимает повторы одной записи в одно событие,
+// читает ее текущее состояние и отдает события всем ChangeEventSink. Строки удаляются в той же транзакции,
+// после публикации: при сбое пачка публикуется повторно (at-least-once), но не теряется.
+// После коммита изменения relay запускается сразу (relay-on-commit), relay-interval - страховка.
+// Пачки одного экземпляра публикуются строго по очереди, поэтому sequence у получателей только растет
+@Service
+@Slf4j
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    private final ChangeOutboxRepository outboxRepository;
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final GenreRepository genreRepository;
+    private final List<ChangeEventSink> sinks;
+    // не read-only: состояние читается с основной базы, а не с реплики, которая могла еще не получить изменение
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final ReentrantLock relayLock = new ReentrantLock();
+    // запуск после коммита уже запланирован - несколько коммитов подряд дают один запуск
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+
+    @Value("${library.changes.enabled:false}")
+    private boolean enabled;
+
+    @Value("${library.changes.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${library.changes.relay-on-commit:true}")
+    private boolean relayOnCommit;
+
+    public ChangeFeedServiceImpl(ChangeOutboxRepository outboxRepository, BookRepository bookRepository,
+                                 AuthorRepository authorRepository, GenreRepository genreRepository,
+                                 List<ChangeEventSink> sinks, PlatformTransactionManager transactionManager,
+                                 TaskScheduler taskScheduler) {
+        this.outboxRepository = outboxRepository;
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.genreRepository = genreRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(EntityType type, Collection<Long> ids) {
+        if (enabled && !ids.isEmpty()) {
+            outboxRepository.append(type.name(), ids);
+            if (relayOnCommit) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        requestRelay();
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.changes.relay-interval:500ms}")
+    public int relayChanges() {
+        if (!enabled) {
+            return 0;
+        }
+        relayLock.lock();
+        try {
+            int relayed = 0;
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> relayBatch());
+                relayed += batch;
+            } while (batch == batchSize);
+            return relayed;
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    private void requestRelay() {
+        if (relayRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                relayRequested.set(false);
+                relayChanges();
+            }, Instant.now());
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxRow> rows = outboxRepository.lockBatch(batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // одно событие на запись; порядок - по последнему ее изменению в пачке
+        Map<EntityType, Map<Long, Long>> changes = new EnumMap<>(EntityType.class);
+        for (OutboxRow row : rows) {
+            Map<Long, Long> ids = changes.computeIfAbsent(EntityType.valueOf(row.entityType()), type -> new HashMap<>());
+            ids.merge(row.entityId(), row.id(), Math::max);
+        }
+        List<Map.Entry<Long, ChangeEventDto>> positioned = new ArrayList<>();
+        changes.forEach((type, ids) -> {
+            Map<Long, Object> states = loadStates(type, ids.keySet());
+            ids.forEach((id, position) -> {
+                Object state = states.get(id);
+                positioned.add(Map.entry(position, ChangeEventDto.builder()
+                        .type(type)
+                        .id(id)
+                        .operation(state != null ? ChangeEventDto.Operation.UPSERT : ChangeEventDto.Operation.DELETE)
+                        .data(state)
+                        .build()));
+            });
+        });
+        positioned.sort(Map.Entry.comparingByKey());
+        List<ChangeEventDto> events = positioned.stream().map(Map.Entry::getValue).toList();
+
+        List<Long> sequences = outboxRepository.nextSequences(events.size());
+        Instant now = Instant.now();
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).setSequence(sequences.get(i));
+            events.get(i).setPublishedAt(now);
+        }
+        for (ChangeEventSink sink : sinks) {
+            sink.publish(events);
+        }
+        outboxRepository.delete(rows.stream().map(OutboxRow::id).toList());
+        log.info("Published {} change events from {} outbox rows", events.size(), rows.size());
+        return rows.size();
+    }
+
+    // текущее состояние записей одним запросом на тип; удаленных в ответе нет
+    private Map<Long, Object> loadStates(EntityType type, Collection<Long> ids) {
+        Map<Long, Object> states = new LinkedHashMap<>();
+        switch (type) {
+            case BOOK -> bookRepository.findCatalogRowsByIdIn(ids)
+                    .forEach(row -> states.put(row.getBookId(), RowsConverter.toBookDtoWithGenre(row)));
+            case AUTHOR -> RowsConverter.toAuthorDtos(authorRepository.findAuthorRowsByIdIn(ids))
+                    .forEach(author -> states.put(author.getId(), author));
+            case GENRE -> genreRepository.findGenreNodesByIdIn(ids)
+                    .forEach(genre -> states.put(genre.getId(), GenreDto.builder()
+                            .id(genre.getId())
+                            .name(genre.getName())
+                            .build()));
+        }
+        return states;
+    }
+}
@@ -0,0 +1,218 @@
+package ru.itgirl.library_project.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.itgirl.library_project.dto.ChangeEventDto;
+import ru.itgirl.library_project.repository.ChangeOutboxRepository;
+import ru.itgirl.library_project.service.ChangeEventSink;
+import ru.itgirl.library_project.service.ChangeStreamService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// Поток изменений каталога для GET /changes/stream (SSE). Id события SSE - его sequence, поэтому браузерный
+// EventSource после обрыва сам присылает Last-Event-ID, и пропущенное досылается из истории последних событий.
+// Если пропущенного в истории уже нет, первым приходит событие reset - клиент перечитывает каталог целиком.
+// У каждого подписчика своя очередь на buffer-size событий и свой виртуальный поток, который пишет в соединение:
+// relay только кладет события в очереди и не ждет клиентов. Подписчик, чья очередь не вмещает очередную пачку,
+// отключается - его события не теряются молча, он переподключается с Last-Event-ID и дочитывает из истории
+@Service
+@Slf4j
+public class ChangeStreamServiceImpl implements ChangeStreamService, ChangeEventSink {
+
+    private static final ChangeEventDto DISCONNECT = new ChangeEventDto();
+
+    private final int historySize;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration heartbeatInterval;
+    private final ThreadFactory senders = Thread.ofVirtual().name("change-stream-", 0).factory();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter dropped;
+
+    // история и регистрация подписчиков - под одной блокировкой, чтобы при подписке ничего не потерялось и не задвоилось
+    private final Object lock = new Object();
+    private final ArrayDeque<ChangeEventDto> history = new ArrayDeque<>();
+    // все события с sequence больше этого есть в истории
+    private long resumableAfter;
+
+    public ChangeStreamServiceImpl(ChangeOutboxRepository outboxRepository, MeterRegistry meterRegistry,
+                                   @Value("${library.changes.stream.history-size:10000}") int historySize,
+                                   @Value("${library.changes.stream.buffer-size:1000}") int bufferSize,
+                                   @Value("${library.changes.stream.max-subscribers:5000}") int maxSubscribers,
+                                   @Value("${library.changes.stream.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.historySize = historySize;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeatInterval = heartbeatInterval;
+        this.resumableAfter = outboxRepository.findLastSequence(); // события до старта не сохранились
+        Gauge.builder("library.changes.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+        this.dropped = Counter.builder("library.changes.stream.dropped")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("Change feed subscription rejected, {} subscribers already", subscribers.size());
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(0L); // без таймаута, пока клиент не отключится
+        Subscriber subscriber;
+        synchronized (lock) {
+            boolean reset = lastEventId != null && lastEventId < resumableAfter;
+            List<ChangeEventDto> replay = new ArrayList<>();
+            if (lastEventId != null && !reset) {
+                history.stream().filter(event -> event.getSequence() > lastEventId).forEach(replay::add);
+            }
+            subscriber = new Subscriber(emitter, reset, replay);
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        senders.newThread(subscriber).start();
+        log.info("Try to stream changes after {} to a new subscriber, {} in total", lastEventId, subscribers.size());
+        return emitter;
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void publish(List<ChangeEventDto> events) {
+        synchronized (lock) {
+            for (ChangeEventDto event : events) {
+                history.addLast(event);
+                if (history.size() > historySize) {
+                    resumableAfter = history.removeFirst().getSequence();
+                }
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.offer(events)) {
+                    log.warn("Change feed subscriber is too slow, {} events pending - disconnecting",
+                            subscriber.queue.size());
+                    dropped.increment();
+                    subscriber.disconnect();
+                }
+            }
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final boolean reset;
+        private final List<ChangeEventDto> replay;
+        // одно место сверх buffer-size - для сигнала отключения
+        private final BlockingQueue<ChangeEventDto> queue = new ArrayBlockingQueue<>(bufferSize + 1);
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, boolean reset, List<ChangeEventDto> replay) {
+            this.emitter = emitter;
+            this.reset = reset;
+            this.replay = replay;
+        }
+
+        // пачка кладется целиком или не кладется совсем
+        private boolean offer(List<ChangeEventDto> events) {
+            if (closed) {
+                return true;
+            }
+            if (queue.remainingCapacity() - 1 < events.size()) {
+                return false;
+            }
+            queue.addAll(events);
+            return true;
+        }
+
+        private void disconnect() {
+            queue.clear(); // неотправленное больше не держим в памяти
+            close();
+        }
+
+        // клиент отключился или отключен - поток-отправитель просыпается и завершается
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            queue.offer(DISCONNECT);
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (reset) {
+                    emitter.send(SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON));
+                }
+                for (int from = 0; from < replay.size(); from += bufferSize) {
+                    send(replay.subList(from, Math.min(replay.size(), from + bufferSize)));
+                }
+                List<ChangeEventDto> batch = new ArrayList<>();
+                while (!closed) {
+                    ChangeEventDto event = queue.poll(heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        // комментарий не виден клиенту, но держит соединение и обнаруживает отключившихся
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                        continue;
+                    }
+                    batch.add(event);
+                    queue.drainTo(batch);
+                    batch.removeIf(item -> item == DISCONNECT);
+                    send(batch); // все накопившееся - одной записью в соединение
+                    batch.clear();
+                }
+                complete();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Change feed subscriber is gone: {}", e.getMessage());
+                close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                complete();
+            }
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                log.debug("Change feed connection is already closed: {}", e.getMessage());
+            }
+        }
+
+        private void send(List<ChangeEventDto> events) throws IOException {
+            if (events.isEmpty()) {
+                return;
+            }
+            Set<DataWithMediaType> data = new LinkedHashSet<>();
+            for (ChangeEventDto event : events) {
+                data.addAll(SseEmitter.event()
+                        .id(Long.toString(event.getSequence()))
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON)
+                        .build());
+            }
+            emitter.send(data);
+        }
+    }
+}
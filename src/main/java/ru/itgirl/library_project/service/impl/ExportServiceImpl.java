@@ -0,0 +1,50 @@
+package ru.itgirl.library_project.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.itgirl.library_project.repository.CatalogExportRepository;
+import ru.itgirl.library_project.service.ExportService;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.BiFunction;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    // COPY отдает данные по строке - собираем их в буфер, чтобы писать в ответ (и в gzip) крупными кусками
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CatalogExportRepository exportRepository;
+
+    @Override
+    public void exportBooksCsv(Long afterId, OutputStream out) throws IOException {
+        export("csv", afterId, out, exportRepository::copyBooksCsv);
+    }
+
+    @Override
+    public void exportBooksNdjson(Long afterId, OutputStream out) throws IOException {
+        export("ndjson", afterId, out, exportRepository::copyBooksNdjson);
+    }
+
+    private void export(String format, Long afterId, OutputStream out, BiFunction<Long, OutputStream, Long> copy)
+            throws IOException {
+        long after = afterId == null ? 0 : afterId;
+        log.info("Try to export books as {} after id {}", format, after);
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        try {
+            long rows = copy.apply(after, buffered);
+            buffered.flush();
+            log.info("Exported {} books as {}", rows, format);
+        } catch (UncheckedIOException e) {
+            // обычно клиент закрыл соединение; он может продолжить с последнего полученного id
+            log.warn("Export of books as {} after id {} interrupted: {}", format, after, e.getMessage());
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.itgirl.library_project.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import ru.itgirl.library_project.dto.ChangeEventDto;
+import ru.itgirl.library_project.service.ChangeEventSink;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Журнал событий в локальном файле (library.changes.file): строка JSON на событие, файл только дописывается
+@Component
+@ConditionalOnExpression("!'${library.changes.file:}'.isBlank()")
+@Slf4j
+public class FileChangeSink implements ChangeEventSink {
+
+    private final Path file;
+    private final ObjectWriter writer;
+    // пачки не перемешиваются в файле; монитор (synchronized) держал бы несущий поток на время записи с SYNC
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FileChangeSink(@Value("${library.changes.file}") Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.writer = objectMapper.writerFor(ChangeEventDto.class);
+        log.info("Change events are appended to {}", file.toAbsolutePath());
+    }
+
+    // пачка целиком записывается на диск до того, как relay удалит строки outbox
+    @Override
+    public void publish(List<ChangeEventDto> events) {
+        lock.lock();
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC)) {
+            for (ChangeEventDto event : events) {
+                out.write(writer.writeValueAsString(event));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append change events to " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
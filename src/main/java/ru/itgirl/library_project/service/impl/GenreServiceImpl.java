@@ -2,13 +2,20 @@ package ru.itgirl.library_project.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import ru.itgirl.library_project.dto.AuthorDto;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.config.CacheConfig;
 import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
 import ru.itgirl.library_project.dto.GenreDto;
-import ru.itgirl.library_project.model.Genre;
 import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.repository.projection.GenreCatalogRow;
+import ru.itgirl.library_project.repository.projection.VersionRow;
 import ru.itgirl.library_project.service.GenreService;
+import ru.itgirl.library_project.util.CursorCodec;
+import ru.itgirl.library_project.util.RowsConverter;
 
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -21,14 +28,33 @@ public class GenreServiceImpl implements GenreService {
 
     private final GenreRepository genreRepository;
 
+    @Value("${library.catalog.page-size.default:50}")
+    private int defaultPageSize;
+
+    @Value("${library.catalog.page-size.max:1000}")
+    private int maxPageSize;
+
     @Override
+    @Cacheable(value = CacheConfig.GENRES, key = "#id")
+    @Transactional(readOnly = true)
     public GenreDto getGenreById(Long id) {
         log.info("Try to find genre by id {}", id);
-        Optional<Genre> genre = genreRepository.findById(id);
+        List<GenreCatalogRow> rows = genreRepository.findCatalogRowsById(id); // готовая витрина, без соединений с авторами
 
-        if (genre.isPresent()) {
-            GenreDto genreDto = convertToDto(genre.get());
-            log.info("Genre: {}", genreDto.toString());
+        if (!rows.isEmpty()) {
+            GenreCatalogRow first = rows.get(0);
+            GenreDto genreDto = GenreDto.builder()
+                    .id(first.getGenreId())
+                    .name(first.getGenreName())
+                    .books(rows.stream()
+                            .filter(row -> row.getBookId() != null) // жанр без книг
+                            .map(RowsConverter::toBookDto)
+                            .toList())
+                    .build();
+            log.atInfo().setMessage("Found genre with id {} and {} books")
+                    .addArgument(genreDto::getId)
+                    .addArgument(() -> genreDto.getBooks().size())
+                    .log();
             return genreDto;
         } else {
             log.error("Genre with id {} not found", id);
@@ -36,27 +62,34 @@ public class GenreServiceImpl implements GenreService {
         }
     }
 
-    private GenreDto convertToDto(Genre genre) {
-        List<BookDto> bookDtoList = genre.getBooks()
-                .stream()
-                .map(book -> BookDto.builder()
-                        .id(book.getId())
-                        .name(book.getName())
-                        .authors(book.getAuthors()
-                                .stream()
-                                .map(author -> AuthorDto.builder()
-                                        .id(author.getId())
-                                        .name(author.getName())
-                                        .surname(author.getSurname())
-                                        .build())
-                                .toList())
-                        .build())
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDto> getGenreBooksPage(Long id, String cursor, Integer size) {
+        Long afterId = CursorCodec.decode(cursor);
+        int pageSize = CursorCodec.resolvePageSize(size, defaultPageSize, maxPageSize);
+        log.info("Try to get books page of genre {} after id {} with size {}", id, afterId, pageSize);
+        // берем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<GenreCatalogRow> rows = genreRepository.findCatalogPageAfter(id, afterId, pageSize + 1);
+        if (rows.isEmpty() && !genreRepository.existsById(id)) {
+            log.error("Genre with id {} not found", id);
+            throw new NoSuchElementException("No value present");
+        }
+        boolean hasNext = rows.size() > pageSize;
+        List<BookDto> bookDtos = rows.stream()
+                .limit(pageSize)
+                .map(RowsConverter::toBookDto)
                 .toList();
-
-        return GenreDto.builder()
-                .id(genre.getId())
-                .name(genre.getName())
-                .books(bookDtoList)
+        String nextCursor = hasNext ? CursorCodec.encode(bookDtos.get(bookDtos.size() - 1).getId()) : null;
+        log.info("Found {} books of genre {}, has next page: {}", bookDtos.size(), id, hasNext);
+        return CursorPageDto.<BookDto>builder()
+                .items(bookDtos)
+                .nextCursor(nextCursor)
                 .build();
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionRow> getGenreVersion(Long id) {
+        return genreRepository.findVersionById(id);
+    }
+}
@@ -0,0 +1,463 @@
+package ru.itgirl.library_project.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itgirl.library_project.config.CacheConfig;
+import ru.itgirl.library_project.dto.AuthorCreateDto;
+import ru.itgirl.library_project.dto.ChangeEventDto.EntityType;
+import ru.itgirl.library_project.dto.ImportJobDto;
+import ru.itgirl.library_project.dto.ImportRejectedRowDto;
+import ru.itgirl.library_project.dto.ImportRowDto;
+import ru.itgirl.library_project.repository.CatalogImportRepository;
+import ru.itgirl.library_project.repository.CatalogImportRepository.AuthorBookRow;
+import ru.itgirl.library_project.repository.CatalogImportRepository.AuthorName;
+import ru.itgirl.library_project.repository.CatalogImportRepository.BookRow;
+import ru.itgirl.library_project.service.ChangeFeedService;
+import ru.itgirl.library_project.service.ImportService;
+import ru.itgirl.library_project.util.BatchSupport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+// Импорт каталога из CSV (name,genre,authors - авторы через ";" в виде "Имя Фамилия") или NDJSON (ImportRowDto).
+// Файл читается потоком по записям и загружается порциями по chunk-size строк, каждая порция - своя транзакция,
+// поэтому память не зависит от размера файла. Жанры и авторы ищутся или создаются один раз на импорт
+@Service
+@Slf4j
+public class ImportServiceImpl implements ImportService {
+
+    private final CatalogImportRepository importRepository;
+    private final ChangeFeedService changeFeedService;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectReader ndjsonReader;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final AtomicLong jobIds = new AtomicLong();
+    // последние импорты вместе с текущими, старые вытесняются
+    private final Map<Long, ImportJob> jobs;
+
+    @Value("${library.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${library.import.cache-size:100000}")
+    private int cacheSize;
+
+    @Value("${library.import.max-reported-rejects:1000}")
+    private int maxReportedRejects;
+
+    public ImportServiceImpl(CatalogImportRepository importRepository, ChangeFeedService changeFeedService,
+                             TransactionTemplate transactionTemplate, Validator validator, CacheManager cacheManager, EntityManagerFactory entityManagerFactory,
+                             ObjectMapper objectMapper, @Value("${library.import.max-jobs:100}") int maxJobs) {
+        this.importRepository = importRepository;
+        this.changeFeedService = changeFeedService;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.ndjsonReader = objectMapper.readerFor(ImportRowDto.class);
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ImportJob> eldest) {
+                return size() > maxJobs;
+            }
+        });
+    }
+
+    @Override
+    public ImportJobDto importBooksCsv(InputStream in) {
+        return runImport("csv", in, CsvRowReader::new);
+    }
+
+    @Override
+    public ImportJobDto importBooksNdjson(InputStream in) {
+        return runImport("ndjson", in, NdjsonRowReader::new);
+    }
+
+    @Override
+    public List<ImportJobDto> getImportJobs() {
+        synchronized (jobs) {
+            return jobs.values().stream().map(ImportJob::toDto).toList();
+        }
+    }
+
+    @Override
+    public ImportJobDto getImportJob(Long id) {
+        log.info("Try to find import with id {}", id);
+        ImportJob job = jobs.get(id);
+        if (job != null) {
+            return job.toDto();
+        } else {
+            log.error("Import with id {} not found", id);
+            throw new NoSuchElementException("No value present");
+        }
+    }
+
+    private ImportJobDto runImport(String format, InputStream in, RowReaderFactory rowReaderFactory) {
+        ImportJob job = new ImportJob(jobIds.incrementAndGet(), format);
+        jobs.put(job.id, job);
+        log.info("Try to import books from {} (import {})", format, job.id);
+        // имя -> id, только в пределах этого импорта и не больше cache-size записей
+        Map<String, Long> genreIds = lruMap(cacheSize);
+        Map<AuthorName, Long> authorIds = lruMap(cacheSize);
+        List<ImportRowDto> rows = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            skipByteOrderMark(reader);
+            RowReader rowReader = rowReaderFactory.create(reader);
+            ParsedRow parsed;
+            while ((parsed = rowReader.next()) != null) {
+                job.rowsRead.incrementAndGet();
+                String error = parsed.error() != null ? parsed.error()
+                        : BatchSupport.describe(validator.validate(parsed.row()));
+                if (error != null) {
+                    job.reject(parsed.line(), error, maxReportedRejects);
+                    continue;
+                }
+                rows.add(parsed.row());
+                if (rows.size() == chunkSize) {
+                    importChunk(rows, genreIds, authorIds, job);
+                    rows.clear();
+                }
+            }
+            if (!rows.isEmpty()) {
+                importChunk(rows, genreIds, authorIds, job);
+            }
+            job.finish(ImportJobDto.Status.COMPLETED, null);
+        } catch (IOException | RuntimeException e) {
+            // уже загруженные порции остаются в базе, в отчете видно, сколько строк успело загрузиться
+            log.error("Import {} failed after {} imported rows", job.id, job.rowsImported.get(), e);
+            job.finish(ImportJobDto.Status.FAILED, e.getMessage());
+        }
+        ImportJobDto report = job.toDto();
+        log.info("Import {} finished: {} rows read, {} imported, {} rejected, {} rows/s", job.id,
+                report.getRowsRead(), report.getRowsImported(), report.getRowsRejected(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private void importChunk(List<ImportRowDto> rows, Map<String, Long> genreIds, Map<AuthorName, Long> authorIds,
+                             ImportJob job) {
+        long[] created = transactionTemplate.execute(status -> {
+            importRepository.lock();
+            importRepository.prepareStaging();
+            long[] counts = new long[2];
+            Map<String, Long> chunkGenres = resolveGenres(rows, genreIds, counts);
+            Map<AuthorName, Long> chunkAuthors = resolveAuthors(rows, authorIds, counts);
+
+            long[] bookIds = importRepository.allocateIds(CatalogImportRepository.BOOK_SEQUENCE, rows.size());
+            List<BookRow> books = new ArrayList<>(rows.size());
+            List<AuthorBookRow> authorBooks = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                ImportRowDto row = rows.get(i);
+                long bookId = bookIds[i];
+                books.add(new BookRow(bookId, row.getName(), chunkGenres.get(row.getGenre())));
+                // один и тот же автор, указанный в строке дважды, связывается с книгой один раз
+                authors(row).stream()
+                        .map(author -> chunkAuthors.get(authorName(author)))
+                        .distinct()
+                        .forEach(authorId -> authorBooks.add(new AuthorBookRow(bookId, authorId)));
+            }
+            importRepository.stageBooks(books, authorBooks);
+            importRepository.mergeBooks();
+            changeFeedService.recordChanges(EntityType.BOOK, LongStream.of(bookIds).boxed().toList());
+            return counts;
+        });
+        job.genresCreated.addAndGet(created[0]);
+        job.authorsCreated.addAndGet(created[1]);
+        job.rowsImported.addAndGet(rows.size());
+        evictCaches();
+    }
+
+    // жанры порции: из памяти, иначе одним запросом создаются недостающие и читаются id
+    private Map<String, Long> resolveGenres(List<ImportRowDto> rows, Map<String, Long> genreIds, long[] counts) {
+        Map<String, Long> chunkGenres = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (ImportRowDto row : rows) {
+            Long id = genreIds.get(row.getGenre());
+            if (id != null) {
+                chunkGenres.put(row.getGenre(), id);
+            } else {
+                missing.add(row.getGenre());
+            }
+        }
+        if (!missing.isEmpty()) {
+            int inserted = importRepository.insertGenres(missing);
+            counts[0] += inserted;
+            Map<String, Long> found = importRepository.findGenreIds(missing);
+            if (inserted > 0) { // какие из найденных созданы сейчас, не важно - повторный UPSERT безвреден
+                changeFeedService.recordChanges(EntityType.GENRE, found.values());
+            }
+            chunkGenres.putAll(found);
+            genreIds.putAll(found);
+        }
+        return chunkGenres;
+    }
+
+    // авторы порции: из памяти, иначе поиск по таблице author, не найденные создаются с id из последовательности
+    private Map<AuthorName, Long> resolveAuthors(List<ImportRowDto> rows, Map<AuthorName, Long> authorIds,
+                                                 long[] counts) {
+        Map<AuthorName, Long> chunkAuthors = new HashMap<>();
+        Set<AuthorName> missing = new HashSet<>();
+        for (ImportRowDto row : rows) {
+            for (AuthorCreateDto author : authors(row)) {
+                AuthorName name = authorName(author);
+                Long id = authorIds.get(name);
+                if (id != null) {
+                    chunkAuthors.put(name, id);
+                } else {
+                    missing.add(name);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<AuthorName, Long> found = importRepository.findAuthorIds(missing);
+            List<AuthorName> newAuthors = missing.stream().filter(name -> !found.containsKey(name)).toList();
+            if (!newAuthors.isEmpty()) {
+                long[] ids = importRepository.allocateIds(CatalogImportRepository.AUTHOR_SEQUENCE, newAuthors.size());
+                Map<AuthorName, Long> created = new HashMap<>();
+                for (int i = 0; i < ids.length; i++) {
+                    created.put(newAuthors.get(i), ids[i]);
+                }
+                importRepository.insertAuthors(created);
+                changeFeedService.recordChanges(EntityType.AUTHOR, created.values());
+                found.putAll(created);
+                counts[1] += created.size();
+            }
+            chunkAuthors.putAll(found);
+            authorIds.putAll(found);
+        }
+        return chunkAuthors;
+    }
+
+    // данные менялись в обход JPA - кэши сервисов и Hibernate сбрасываются после каждой порции
+    private void evictCaches() {
+        Stream.of(CacheConfig.AUTHORS, CacheConfig.BOOKS_BY_NAME, CacheConfig.GENRES)
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    // метка BOM в начале UTF-8 файла не должна попасть в название первой колонки
+    private static void skipByteOrderMark(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    // "Лев Толстой; Федор Достоевский": имя - первое слово, фамилия - остальное
+    private List<AuthorCreateDto> parseAuthors(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(";"))
+                .map(String::trim)
+                .filter(author -> !author.isEmpty())
+                .map(author -> author.split("\\s+", 2))
+                .map(parts -> new AuthorCreateDto(parts[0], parts.length > 1 ? parts[1] : null))
+                .toList();
+    }
+
+    private static List<AuthorCreateDto> authors(ImportRowDto row) {
+        return row.getAuthors() == null ? List.of() : row.getAuthors();
+    }
+
+    private static AuthorName authorName(AuthorCreateDto author) {
+        return new AuthorName(author.getName(), author.getSurname());
+    }
+
+    private static <K, V> Map<K, V> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    // строка файла: номер строки, с которой она начинается, и данные или причина отказа
+    private record ParsedRow(long line, ImportRowDto row, String error) {
+    }
+
+    private interface RowReader {
+        // null - файл закончился
+        ParsedRow next() throws IOException;
+    }
+
+    private interface RowReaderFactory {
+        RowReader create(BufferedReader reader) throws IOException;
+    }
+
+    // NDJSON: одна строка - один объект, пустые строки пропускаются
+    private class NdjsonRowReader implements RowReader {
+        private final LineNumberReader reader;
+
+        private NdjsonRowReader(BufferedReader reader) {
+            this.reader = new LineNumberReader(reader);
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                return new ParsedRow(reader.getLineNumber(), ndjsonReader.readValue(line), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(reader.getLineNumber(), null, "Malformed row: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    // CSV: первая строка - заголовок с названиями колонок. Записи разбирает парсер по всему потоку, а не по
+    // физическим строкам - значение в кавычках может содержать запятые и переводы строк (так пишет COPY ... csv)
+    private class CsvRowReader implements RowReader {
+        private final MappingIterator<Map<String, String>> values;
+        private boolean headerChecked;
+
+        private CsvRowReader(BufferedReader reader) throws IOException {
+            // в пустом файле нет и заголовка - это не ошибка, просто нет строк
+            reader.mark(1);
+            if (reader.read() == -1) {
+                this.values = null;
+                return;
+            }
+            reader.reset();
+            this.values = csvMapper.readerForMapOf(String.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .with(CsvParser.Feature.TRIM_SPACES)
+                    .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                    .readValues(reader);
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            if (values == null) {
+                return null;
+            }
+            boolean hasNext = values.hasNextValue(); // заодно читает заголовок
+            checkHeader();
+            if (!hasNext) {
+                return null;
+            }
+            // парсер уже стоит в начале следующей записи
+            long line = values.getParser().currentLocation().getLineNr();
+            try {
+                Map<String, String> row = values.nextValue();
+                return new ParsedRow(line, ImportRowDto.builder()
+                        .name(row.get("name"))
+                        .genre(row.get("genre"))
+                        .authors(parseAuthors(row.get("authors")))
+                        .build(), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line, null, "Malformed row: " + e.getOriginalMessage());
+            }
+        }
+
+        // заголовок без нужных колонок - ошибка всего импорта
+        private void checkHeader() {
+            if (headerChecked) {
+                return;
+            }
+            headerChecked = true;
+            CsvSchema schema = ((CsvParser) values.getParser()).getSchema();
+            if (schema.column("name") == null || schema.column("genre") == null) {
+                throw new IllegalArgumentException("CSV header must contain columns name, genre and optionally authors");
+            }
+        }
+    }
+
+    // счетчики обновляет поток импорта, читают запросы GET /import/jobs
+    private static class ImportJob {
+        private final long id;
+        private final String format;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final AtomicLong genresCreated = new AtomicLong();
+        private final AtomicLong authorsCreated = new AtomicLong();
+        private final List<ImportRejectedRowDto> rejectedRows = Collections.synchronizedList(new ArrayList<>());
+        private volatile ImportJobDto.Status status = ImportJobDto.Status.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private ImportJob(long id, String format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        private void reject(long line, String error, int maxReported) {
+            if (rowsRejected.incrementAndGet() <= maxReported) {
+                rejectedRows.add(new ImportRejectedRowDto(line, error));
+            }
+        }
+
+        private void finish(ImportJobDto.Status status, String error) {
+            this.error = error;
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        private ImportJobDto toDto() {
+            Instant until = finishedAt != null ? finishedAt : Instant.now();
+            long millis = Math.max(1, Duration.between(startedAt, until).toMillis());
+            synchronized (rejectedRows) {
+                return ImportJobDto.builder()
+                        .id(id)
+                        .format(format)
+                        .status(status)
+                        .startedAt(startedAt)
+                        .finishedAt(finishedAt)
+                        .rowsRead(rowsRead.get())
+                        .rowsImported(rowsImported.get())
+                        .rowsRejected(rowsRejected.get())
+                        .genresCreated(genresCreated.get())
+                        .authorsCreated(authorsCreated.get())
+                        .rowsPerSecond(rowsRead.get() * 1000 / millis)
+                        .rejectedRows(List.copyOf(rejectedRows))
+                        .error(error)
+                        .build();
+            }
+        }
+    }
+}
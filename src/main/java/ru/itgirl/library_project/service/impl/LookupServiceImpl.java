@@ -0,0 +1,149 @@
+package ru.itgirl.library_project.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import ru.itgirl.library_project.config.CacheConfig;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BatchItemResultDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.dto.LookupRequestDto;
+import ru.itgirl.library_project.dto.LookupResultDto;
+import ru.itgirl.library_project.service.LookupService;
+import ru.itgirl.library_project.util.BatchLoader;
+import ru.itgirl.library_project.util.BatchSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LookupServiceImpl implements LookupService {
+
+    // прокси: на каждый HTTP-запрос свой набор загрузчиков
+    private final CatalogBatchLoaders loaders;
+    // общие для всех запросов, с окном
+    private final CatalogCoalescingLoaders coalescingLoaders;
+    private final CacheManager cacheManager;
+
+    @Value("${library.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Override
+    public List<BatchItemResultDto<AuthorDto>> getAuthorsByIds(List<Long> ids) {
+        log.info("Try to find {} authors by ids", ids.size());
+        BatchSupport.checkSize(ids, maxBatchSize);
+        return lookup("Author", ids, loaders.authors());
+    }
+
+    @Override
+    public List<BatchItemResultDto<BookDto>> getBooksByIds(List<Long> ids) {
+        log.info("Try to find {} books by ids", ids.size());
+        BatchSupport.checkSize(ids, maxBatchSize);
+        return lookup("Book", ids, loaders.books());
+    }
+
+    @Override
+    public List<BatchItemResultDto<GenreDto>> getGenresByIds(List<Long> ids) {
+        log.info("Try to find {} genres by ids", ids.size());
+        BatchSupport.checkSize(ids, maxBatchSize);
+        return lookup("Genre", ids, loaders.genres());
+    }
+
+    @Override
+    public LookupResultDto lookup(LookupRequestDto lookupRequestDto) {
+        List<Long> authorIds = orEmpty(lookupRequestDto.getAuthors());
+        List<Long> bookIds = orEmpty(lookupRequestDto.getBooks());
+        List<Long> genreIds = orEmpty(lookupRequestDto.getGenres());
+        log.info("Try to look up {} authors, {} books and {} genres", authorIds.size(), bookIds.size(), genreIds.size());
+        BatchSupport.checkSize(Stream.of(authorIds, bookIds, genreIds).flatMap(List::stream).toList(), maxBatchSize);
+
+        // сначала ставим в очередь все id, потом отправляем - по одному запросу на тип
+        List<CompletableFuture<AuthorDto>> authors = load(authorIds, loaders.authors());
+        List<CompletableFuture<BookDto>> books = load(bookIds, loaders.books());
+        List<CompletableFuture<GenreDto>> genres = load(genreIds, loaders.genres());
+        loaders.authors().dispatch();
+        loaders.books().dispatch();
+        loaders.genres().dispatch();
+
+        return LookupResultDto.builder()
+                .authors(lookupRequestDto.getAuthors() == null ? null : collect("Author", authorIds, authors))
+                .books(lookupRequestDto.getBooks() == null ? null : collect("Book", bookIds, books))
+                .genres(lookupRequestDto.getGenres() == null ? null : collect("Genre", genreIds, genres))
+                .build();
+    }
+
+    @Override
+    public AuthorDto getAuthorById(Long id) {
+        log.info("Try to find author by id {}", id);
+        return getById("Author", id, CacheConfig.AUTHORS, AuthorDto.class, coalescingLoaders.authors());
+    }
+
+    @Override
+    public GenreDto getGenreById(Long id) {
+        log.info("Try to find genre by id {}", id);
+        return getById("Genre", id, CacheConfig.GENRES, GenreDto.class, coalescingLoaders.genres());
+    }
+
+    // тот же кэш, что у AuthorService.getAuthorById и GenreService.getGenreById, и то же исключение для ненайденного id
+    private <V> V getById(String entity, Long id, String cacheName, Class<V> type, BatchLoader<Long, V> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        V value = cache.get(id, type);
+        if (value != null) {
+            return value;
+        }
+        value = loader.load(id).join();
+        if (value == null) {
+            log.error("{} with id {} not found", entity, id);
+            throw new NoSuchElementException("No value present");
+        }
+        cache.put(id, value);
+        return value;
+    }
+
+    private <V> List<BatchItemResultDto<V>> lookup(String entity, List<Long> ids, BatchLoader<Long, V> loader) {
+        List<CompletableFuture<V>> futures = load(ids, loader);
+        loader.dispatch();
+        return collect(entity, ids, futures);
+    }
+
+    // null вместо future - для пустого id, он в запрос не попадает
+    private static <V> List<CompletableFuture<V>> load(List<Long> ids, BatchLoader<Long, V> loader) {
+        List<CompletableFuture<V>> futures = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            futures.add(id == null ? null : loader.load(id));
+        }
+        return futures;
+    }
+
+    private static <V> List<BatchItemResultDto<V>> collect(String entity, List<Long> ids,
+                                                           List<CompletableFuture<V>> futures) {
+        List<BatchItemResultDto<V>> results = new ArrayList<>(ids.size());
+        int found = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            V value = futures.get(i) == null ? null : futures.get(i).join();
+            if (ids.get(i) == null) {
+                results.add(BatchItemResultDto.error(i, entity + " id is required"));
+            } else if (value == null) {
+                results.add(BatchItemResultDto.error(i, entity + " with id " + ids.get(i) + " not found"));
+            } else {
+                results.add(BatchItemResultDto.success(i, value));
+                found++;
+            }
+        }
+        log.info("Found {} of {} {}s", found, ids.size(), entity.toLowerCase());
+        return results;
+    }
+
+    private static List<Long> orEmpty(List<Long> ids) {
+        return ids == null ? List.of() : ids;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.itgirl.library_project.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.repository.reactive.AuthorReactiveRepository;
+import ru.itgirl.library_project.repository.reactive.BookReactiveRepository;
+import ru.itgirl.library_project.repository.reactive.GenreReactiveRepository;
+import ru.itgirl.library_project.service.ReactiveCatalogService;
+import ru.itgirl.library_project.util.RowsConverter;
+
+import java.util.NoSuchElementException;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveCatalogServiceImpl implements ReactiveCatalogService {
+
+    private final BookReactiveRepository bookReactiveRepository;
+    private final AuthorReactiveRepository authorReactiveRepository;
+    private final GenreReactiveRepository genreReactiveRepository;
+
+    @Override
+    public Mono<BookDto> getBookByName(String name) {
+        log.info("Try to find book by name {} reactively", name);
+        return bookReactiveRepository.findBookDtoByName(name)
+                .switchIfEmpty(notFound("Book with name '" + name + "' not found"));
+    }
+
+    @Override
+    public Mono<AuthorDto> getAuthorById(Long id) {
+        log.info("Try to find author by id {} reactively", id);
+        return authorReactiveRepository.findAuthorRowsById(id)
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> RowsConverter.toAuthorDtos(rows).get(0))
+                .switchIfEmpty(notFound("Author with id " + id + " not found"));
+    }
+
+    @Override
+    public Mono<GenreDto> getGenreById(Long id) {
+        log.info("Try to find genre by id {} reactively", id);
+        return genreReactiveRepository.findGenreRowsById(id)
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(RowsConverter::toGenreDto)
+                .switchIfEmpty(notFound("Genre with id " + id + " not found"));
+    }
+
+    @Override
+    public Flux<BookDto> getAllBooks() {
+        log.info("Try to stream all books reactively");
+        return bookReactiveRepository.findAllBookDtos();
+    }
+
+    @Override
+    public Flux<AuthorDto> getAllAuthors() {
+        log.info("Try to stream all authors reactively");
+        return authorReactiveRepository.findAllAuthorDtos();
+    }
+
+    private static <T> Mono<T> notFound(String message) {
+        return Mono.defer(() -> {
+            log.error(message);
+            return Mono.error(new NoSuchElementException("No value present"));
+        });
+    }
+}
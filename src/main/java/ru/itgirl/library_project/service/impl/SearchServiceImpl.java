@@ -0,0 +1,87 @@
+package ru.itgirl.library_project.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.dto.SearchResultDto;
+import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.BookRepository;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.repository.projection.SearchRow;
+import ru.itgirl.library_project.service.SearchService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchServiceImpl implements SearchService {
+
+    private static final String BOOK = "book";
+    private static final String AUTHOR = "author";
+    private static final String GENRE = "genre";
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final GenreRepository genreRepository;
+
+    @Value("${library.search.limit.default:20}")
+    private int defaultLimit;
+
+    @Value("${library.search.limit.max:100}")
+    private int maxLimit;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchResultDto> search(String query, String type, Integer limit) {
+        log.info("Try to search '{}' in {}", query, type == null ? "all" : type);
+        if (type != null && !List.of(BOOK, AUTHOR, GENRE).contains(type)) {
+            throw new IllegalArgumentException("Unknown search type: " + type);
+        }
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String pattern = escapeLike(query.trim().toLowerCase(Locale.ROOT));
+        int resultLimit = limit == null || limit < 1 ? defaultLimit : Math.min(limit, maxLimit);
+
+        List<SearchResultDto> results = new ArrayList<>();
+        if (type == null || BOOK.equals(type)) {
+            addResults(results, BOOK, bookRepository.search(pattern, resultLimit));
+        }
+        if (type == null || AUTHOR.equals(type)) {
+            addResults(results, AUTHOR, authorRepository.search(pattern, resultLimit));
+        }
+        if (type == null || GENRE.equals(type)) {
+            addResults(results, GENRE, genreRepository.search(pattern, resultLimit));
+        }
+        // у всех типов одна шкала релевантности, поэтому просто сливаем и обрезаем
+        List<SearchResultDto> ranked = results.stream()
+                .sorted(Comparator.comparingDouble(SearchResultDto::getScore).reversed())
+                .limit(resultLimit)
+                .toList();
+        log.info("Found {} results for '{}'", ranked.size(), query);
+        return ranked;
+    }
+
+    private static void addResults(List<SearchResultDto> results, String type, List<SearchRow> rows) {
+        for (SearchRow row : rows) {
+            results.add(SearchResultDto.builder()
+                    .type(type)
+                    .id(row.getId())
+                    .title(row.getTitle())
+                    .genre(row.getGenre())
+                    .score(row.getScore())
+                    .build());
+        }
+    }
+
+    // % и _ в запросе пользователя - обычные символы, а не шаблоны LIKE
+    private static String escapeLike(String query) {
+        return query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
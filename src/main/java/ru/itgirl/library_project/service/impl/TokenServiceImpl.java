@@ -0,0 +1,56 @@
+package ru.itgirl.library_project.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+import ru.itgirl.library_project.config.SecurityConfig;
+import ru.itgirl.library_project.dto.TokenDto;
+import ru.itgirl.library_project.service.TokenService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenServiceImpl implements TokenService {
+
+    private final JwtEncoder jwtEncoder;
+
+    @Value("${library.security.token.ttl:15m}")
+    private Duration ttl;
+
+    @Override
+    public TokenDto issueToken(Authentication authentication) {
+        log.info("Try to issue token for user {}", authentication.getName());
+        Instant now = Instant.now();
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(SecurityConfig.ROLE_PREFIX))
+                .map(authority -> authority.substring(SecurityConfig.ROLE_PREFIX.length()))
+                .toList();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim(SecurityConfig.ROLES_CLAIM, roles)
+                .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        log.info("Token issued for user {}, expires at {}", authentication.getName(), claims.getExpiresAt());
+        return TokenDto.builder()
+                .token(token)
+                .tokenType("Bearer")
+                .expiresIn(ttl.toSeconds())
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package ru.itgirl.library_project.util;
+
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Function;
+
+/**
+ * Загрузка по ключам в стиле DataLoader: отдельные load(key) копятся и уходят в batchFunction одним вызовом
+ * (один запрос WHERE id IN (...)) - по dispatch() или когда набралось maxBatchSize ключей. Ключ, которого нет
+ * в ответе batchFunction, завершается null.
+ * <p>
+ * Без окна загрузчик живет столько же, сколько запрос: вызывающий сам решает, когда ключи собраны, запрос
+ * выполняется в его потоке, а результат по каждому ключу запоминается до конца запроса.
+ * <p>
+ * С окном загрузчик общий для параллельных запросов: первый ключ пачки планирует dispatch через window
+ * на переданном планировщике, и запрос выполняется в его потоке. Результаты не запоминаются - после
+ * завершения пачки следующий load того же ключа снова идет в базу; одну future делят только одновременные load.
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<Collection<K>, Map<K, V>> batchFunction;
+    private final int maxBatchSize;
+    private final Duration window;
+    private final TaskScheduler scheduler;
+
+    private final Object lock = new Object();
+    private final Map<K, CompletableFuture<V>> loaded = new HashMap<>();
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledDispatch;
+
+    public BatchLoader(Function<Collection<K>, Map<K, V>> batchFunction, int maxBatchSize) {
+        this(batchFunction, maxBatchSize, null, null);
+    }
+
+    // scheduler - свой у загрузчиков, а не общий планировщик @Scheduled: в его потоках выполняются запросы
+    public BatchLoader(Function<Collection<K>, Map<K, V>> batchFunction, int maxBatchSize,
+                       Duration window, TaskScheduler scheduler) {
+        this.batchFunction = batchFunction;
+        this.maxBatchSize = maxBatchSize;
+        this.window = window;
+        this.scheduler = scheduler;
+    }
+
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> future;
+        Map<K, CompletableFuture<V>> batch = null;
+        synchronized (lock) {
+            future = loaded.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            loaded.put(key, future);
+            pending.put(key, future);
+            if (pending.size() >= maxBatchSize) {
+                batch = takePending();
+            } else if (window != null && scheduledDispatch == null) {
+                scheduledDispatch = scheduler.schedule(this::dispatch, Instant.now().plus(window));
+            }
+        }
+        if (batch != null) {
+            execute(batch);
+        }
+        return future;
+    }
+
+    // загрузить все ключи и дождаться результатов; порядок - как у keys
+    public List<V> loadAll(List<K> keys) {
+        List<CompletableFuture<V>> futures = keys.stream().map(this::load).toList();
+        dispatch();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    // отправить накопленные ключи, не дожидаясь окна; выполняется в вызывающем потоке
+    public void dispatch() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            execute(batch);
+        }
+    }
+
+    private Map<K, CompletableFuture<V>> takePending() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledDispatch != null) {
+            scheduledDispatch.cancel(false);
+            scheduledDispatch = null;
+        }
+        return batch;
+    }
+
+    private void execute(Map<K, CompletableFuture<V>> batch) {
+        try {
+            Map<K, V> values = batchFunction.apply(batch.keySet());
+            forget(batch);
+            batch.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (RuntimeException e) {
+            // ошибку не запоминаем - следующий load тех же ключей попробует снова
+            synchronized (lock) {
+                batch.forEach(loaded::remove);
+            }
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    // общий загрузчик с окном не держит результаты: иначе он отдавал бы устаревшие данные
+    private void forget(Map<K, CompletableFuture<V>> batch) {
+        if (window != null) {
+            synchronized (lock) {
+                batch.forEach(loaded::remove);
+            }
+        }
+    }
+}
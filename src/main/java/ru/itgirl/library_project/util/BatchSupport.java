@@ -0,0 +1,31 @@
+package ru.itgirl.library_project.util;
+
+import jakarta.validation.ConstraintViolation;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Общие проверки для пакетных операций
+public final class BatchSupport {
+
+    private BatchSupport() {
+    }
+
+    public static void checkSize(List<?> items, int maxSize) {
+        if (items.size() > maxSize) {
+            throw new IllegalArgumentException("Batch size " + items.size() + " exceeds limit " + maxSize);
+        }
+    }
+
+    // null, если ошибок валидации нет
+    public static <T> String describe(Set<ConstraintViolation<T>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
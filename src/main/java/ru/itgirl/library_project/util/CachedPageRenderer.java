@@ -0,0 +1,88 @@
+package ru.itgirl.library_project.util;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import ru.itgirl.library_project.config.CacheConfig;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Отрисовка HTML-страниц FreeMarker с кэшем готового результата. Ключ кэша должен включать версию данных:
+ * после любого изменения каталога ключ другой, и страница рисуется заново.
+ * При промахе шаблон пишется сразу в ответ (chunked, без ожидания конца отрисовки) и параллельно в буфер для кэша.
+ */
+@Component
+@RequiredArgsConstructor
+public class CachedPageRenderer {
+
+    // конфигурация FreeMarker есть и без веб-сервера (бенчмарки с WebApplicationType.NONE)
+    private final Configuration freeMarkerConfiguration;
+    private final CacheManager cacheManager;
+
+    public void render(String templateName, String key, Supplier<Map<String, Object>> model,
+                       HttpServletResponse response) throws IOException, TemplateException {
+        Cache cache = cacheManager.getCache(CacheConfig.PAGES);
+        String cacheKey = templateName + ":" + key;
+        String html = cache == null ? null : cache.get(cacheKey, String.class);
+        if (html != null) {
+            setHtmlContentType(response);
+            response.getWriter().write(html);
+            return;
+        }
+
+        // сам шаблон разобран один раз и хранится в кэше шаблонов FreeMarker
+        Template template = freeMarkerConfiguration.getTemplate(templateName + ".ftlh");
+        // модель собирается до выбора типа ответа: ошибка в параметрах запроса уходит обработчику ошибок как JSON
+        Map<String, Object> data = model.get();
+        setHtmlContentType(response);
+        StringWriter copy = new StringWriter();
+        template.process(data, new TeeWriter(response.getWriter(), copy));
+        if (cache != null) {
+            cache.put(cacheKey, copy.toString());
+        }
+    }
+
+    private static void setHtmlContentType(HttpServletResponse response) {
+        response.setContentType(MediaType.TEXT_HTML_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    }
+
+    // пишет одновременно в ответ и в буфер
+    private static class TeeWriter extends Writer {
+        private final Writer first;
+        private final Writer second;
+
+        TeeWriter(Writer first, Writer second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            first.write(buffer, offset, length);
+            second.write(buffer, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            first.flush(); // ответ закрывает сам контейнер
+        }
+    }
+}
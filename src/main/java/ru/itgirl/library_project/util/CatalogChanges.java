@@ -0,0 +1,221 @@
+package ru.itgirl.library_project.util;
+
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.ChangeEventDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+// Изменения каталога поверх неизменяемого снимка CatalogSnapshot - из событий ChangeEventDto, которые relay
+// публикует по записям сервисов. Снимок не копируется: здесь только измененные авторы и книги со связями.
+// Событие о книге несет ее авторов, событие об авторе - его книги, поэтому связь меняется сразу с обеих сторон.
+// Жанры в реплике видны только через книги, а книга в событии уже несет имя жанра - события о жанрах не нужны.
+// Неизменяемый: apply возвращает новый объект, читатели старого его не видят
+public final class CatalogChanges {
+
+    public static final CatalogChanges EMPTY = new CatalogChanges(new HashMap<>(), new HashMap<>(), -1);
+
+    private static final long[] NONE = new long[0];
+
+    // row - строка без связей, null - строка как в снимке; related - id связанных записей по возрастанию;
+    // sequence - последнее событие, изменившее запись
+    private record Change<V>(long sequence, V row, boolean deleted, long[] related) {
+    }
+
+    private final Map<Long, Change<AuthorDto>> authors;
+    private final Map<Long, Change<BookDto>> books;
+    private final long lastSequence;
+
+    private CatalogChanges(Map<Long, Change<AuthorDto>> authors, Map<Long, Change<BookDto>> books,
+                           long lastSequence) {
+        this.authors = authors;
+        this.books = books;
+        this.lastSequence = lastSequence;
+    }
+
+    // события - по возрастанию sequence; уже примененные (повтор при at-least-once) пропускаются
+    public CatalogChanges apply(CatalogSnapshot snapshot, List<ChangeEventDto> events) {
+        CatalogChanges next = new CatalogChanges(new HashMap<>(authors), new HashMap<>(books), lastSequence);
+        long sequence = lastSequence;
+        for (ChangeEventDto event : events) {
+            if (event.getSequence() <= sequence) {
+                continue;
+            }
+            sequence = event.getSequence();
+            switch (event.getType()) {
+                case BOOK -> next.applyBook(snapshot, sequence, event.getId(), (BookDto) event.getData());
+                case AUTHOR -> next.applyAuthor(snapshot, sequence, event.getId(), (AuthorDto) event.getData());
+                case GENRE -> {
+                }
+            }
+        }
+        return new CatalogChanges(next.authors, next.books, sequence);
+    }
+
+    // изменения после события sequence - для снимка, загрузка которого началась после него: более ранние события
+    // несут состояние, прочитанное до загрузки, и в снимке уже есть оно или более новое
+    public CatalogChanges after(long sequence) {
+        Map<Long, Change<AuthorDto>> laterAuthors = new HashMap<>();
+        authors.forEach((id, change) -> {
+            if (change.sequence() > sequence) {
+                laterAuthors.put(id, change);
+            }
+        });
+        Map<Long, Change<BookDto>> laterBooks = new HashMap<>();
+        books.forEach((id, change) -> {
+            if (change.sequence() > sequence) {
+                laterBooks.put(id, change);
+            }
+        });
+        return new CatalogChanges(laterAuthors, laterBooks, lastSequence);
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    // число измененных записей - память реплики сверх снимка
+    public int size() {
+        return authors.size() + books.size();
+    }
+
+    // null, если книги нет
+    public BookDto getBook(CatalogSnapshot snapshot, long id) {
+        if (size() == 0) {
+            return snapshot.getBook(id);
+        }
+        BookDto row = bookRow(snapshot, id);
+        if (row == null) {
+            return null;
+        }
+        List<AuthorDto> authorDtos = rows(bookAuthorIds(snapshot, id), authorId -> authorRow(snapshot, authorId));
+        return new BookDto(row.getId(), row.getName(), row.getGenre(), authorDtos);
+    }
+
+    // null, если автора нет
+    public AuthorDto getAuthor(CatalogSnapshot snapshot, long id) {
+        if (size() == 0) {
+            return snapshot.getAuthor(id);
+        }
+        AuthorDto row = authorRow(snapshot, id);
+        if (row == null) {
+            return null;
+        }
+        List<BookDto> bookDtos = rows(authorBookIds(snapshot, id), bookId -> bookRow(snapshot, bookId));
+        return new AuthorDto(row.getId(), row.getName(), row.getSurname(), bookDtos);
+    }
+
+    private void applyBook(CatalogSnapshot snapshot, long sequence, long id, BookDto data) {
+        long[] before = bookAuthorIds(snapshot, id);
+        long[] after = data == null || data.getAuthors() == null ? NONE
+                : sorted(data.getAuthors().stream().mapToLong(AuthorDto::getId).toArray());
+        BookDto row = data == null ? null : new BookDto(data.getId(), data.getName(), data.getGenre());
+        books.put(id, new Change<>(sequence, row, data == null, after));
+        for (long authorId : before) {
+            if (Arrays.binarySearch(after, authorId) < 0) {
+                Change<AuthorDto> change = authors.get(authorId);
+                authors.put(authorId, new Change<>(sequence, rowOf(change), deleted(change),
+                        without(authorBookIds(snapshot, authorId), id)));
+            }
+        }
+        for (long authorId : after) {
+            if (Arrays.binarySearch(before, authorId) < 0) {
+                Change<AuthorDto> change = authors.get(authorId);
+                authors.put(authorId, new Change<>(sequence, rowOf(change), deleted(change),
+                        with(authorBookIds(snapshot, authorId), id)));
+            }
+        }
+    }
+
+    private void applyAuthor(CatalogSnapshot snapshot, long sequence, long id, AuthorDto data) {
+        long[] before = authorBookIds(snapshot, id);
+        long[] after = data == null || data.getBooks() == null ? NONE
+                : sorted(data.getBooks().stream().mapToLong(BookDto::getId).toArray());
+        AuthorDto row = data == null ? null
+                : AuthorDto.builder().id(data.getId()).name(data.getName()).surname(data.getSurname()).build();
+        authors.put(id, new Change<>(sequence, row, data == null, after));
+        for (long bookId : before) {
+            if (Arrays.binarySearch(after, bookId) < 0) {
+                Change<BookDto> change = books.get(bookId);
+                books.put(bookId, new Change<>(sequence, rowOf(change), deleted(change),
+                        without(bookAuthorIds(snapshot, bookId), id)));
+            }
+        }
+        for (long bookId : after) {
+            if (Arrays.binarySearch(before, bookId) < 0) {
+                Change<BookDto> change = books.get(bookId);
+                books.put(bookId, new Change<>(sequence, rowOf(change), deleted(change),
+                        with(bookAuthorIds(snapshot, bookId), id)));
+            }
+        }
+    }
+
+    private BookDto bookRow(CatalogSnapshot snapshot, long id) {
+        Change<BookDto> change = books.get(id);
+        if (change == null || change.row() == null && !change.deleted()) {
+            return snapshot.getBookRow(id);
+        }
+        return change.deleted() ? null : change.row();
+    }
+
+    private AuthorDto authorRow(CatalogSnapshot snapshot, long id) {
+        Change<AuthorDto> change = authors.get(id);
+        if (change == null || change.row() == null && !change.deleted()) {
+            return snapshot.getAuthorRow(id);
+        }
+        return change.deleted() ? null : change.row();
+    }
+
+    private long[] bookAuthorIds(CatalogSnapshot snapshot, long id) {
+        Change<BookDto> change = books.get(id);
+        return change != null ? change.related() : snapshot.getBookAuthorIds(id);
+    }
+
+    private long[] authorBookIds(CatalogSnapshot snapshot, long id) {
+        Change<AuthorDto> change = authors.get(id);
+        return change != null ? change.related() : snapshot.getAuthorBookIds(id);
+    }
+
+    // связанные записи по возрастанию id, как в снимке; удаленные и еще неизвестные пропускаются
+    private static <V> List<V> rows(long[] ids, LongFunction<V> row) {
+        List<V> rows = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            V value = row.apply(id);
+            if (value != null) {
+                rows.add(value);
+            }
+        }
+        return rows;
+    }
+
+    private static <V> V rowOf(Change<V> change) {
+        return change == null ? null : change.row();
+    }
+
+    private static boolean deleted(Change<?> change) {
+        return change != null && change.deleted();
+    }
+
+    private static long[] sorted(long[] ids) {
+        return Arrays.stream(ids).sorted().distinct().toArray();
+    }
+
+    private static long[] with(long[] ids, long id) {
+        if (Arrays.binarySearch(ids, id) >= 0) {
+            return ids;
+        }
+        long[] result = Arrays.copyOf(ids, ids.length + 1);
+        result[ids.length] = id;
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        return Arrays.stream(ids).filter(value -> value != id).toArray();
+    }
+}
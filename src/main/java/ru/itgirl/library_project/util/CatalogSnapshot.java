@@ -0,0 +1,287 @@
+package ru.itgirl.library_project.util;
+
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Неизменяемый снимок каталога в памяти. Жанры, авторы и книги - параллельные массивы (строка таблицы = индекс),
+// id -> индекс через LongIntHashMap. Связи author_book - в формате CSR в обе стороны: авторы книги b -
+// bookAuthors[bookAuthorOffsets[b] .. bookAuthorOffsets[b + 1]), книги автора a - так же в authorBooks
+public final class CatalogSnapshot {
+
+    public static final CatalogSnapshot EMPTY = new Builder().build(-1);
+
+    private final long version;
+
+    private final long[] genreIds;
+    private final String[] genreNames;
+
+    private final long[] authorIds;
+    private final String[] authorNames;
+    private final String[] authorSurnames;
+    private final LongIntHashMap authorIndex;
+
+    private final long[] bookIds;
+    private final String[] bookNames;
+    private final int[] bookGenres; // индекс жанра или -1
+    private final LongIntHashMap bookIndex;
+
+    private final int[] bookAuthorOffsets;
+    private final int[] bookAuthors;
+    private final int[] authorBookOffsets;
+    private final int[] authorBooks;
+
+    private final long estimatedBytes;
+
+    private CatalogSnapshot(long version, Builder builder) {
+        this.version = version;
+        genreIds = Arrays.copyOf(builder.genreIds, builder.genreCount);
+        genreNames = Arrays.copyOf(builder.genreNames, builder.genreCount);
+        LongIntHashMap genreIndex = index(genreIds);
+
+        authorIds = Arrays.copyOf(builder.authorIds, builder.authorCount);
+        authorNames = Arrays.copyOf(builder.authorNames, builder.authorCount);
+        authorSurnames = Arrays.copyOf(builder.authorSurnames, builder.authorCount);
+        authorIndex = index(authorIds);
+
+        bookIds = Arrays.copyOf(builder.bookIds, builder.bookCount);
+        bookNames = Arrays.copyOf(builder.bookNames, builder.bookCount);
+        bookIndex = index(bookIds);
+        bookGenres = new int[bookIds.length];
+        for (int b = 0; b < bookIds.length; b++) {
+            bookGenres[b] = genreIndex.get(builder.bookGenreIds[b], -1);
+        }
+
+        // пары (книга, автор) в индексах; пары с неизвестными id пропускаются
+        int[] pairBooks = new int[builder.relationCount];
+        int[] pairAuthors = new int[builder.relationCount];
+        int pairs = 0;
+        for (int i = 0; i < builder.relationCount; i++) {
+            int b = bookIndex.get(builder.relationBookIds[i], -1);
+            int a = authorIndex.get(builder.relationAuthorIds[i], -1);
+            if (b >= 0 && a >= 0) {
+                pairBooks[pairs] = b;
+                pairAuthors[pairs] = a;
+                pairs++;
+            }
+        }
+        bookAuthorOffsets = new int[bookIds.length + 1];
+        bookAuthors = new int[pairs];
+        fillAdjacency(pairBooks, pairAuthors, pairs, bookAuthorOffsets, bookAuthors);
+        authorBookOffsets = new int[authorIds.length + 1];
+        authorBooks = new int[pairs];
+        fillAdjacency(pairAuthors, pairBooks, pairs, authorBookOffsets, authorBooks);
+
+        estimatedBytes = estimateBytes(genreIds.length, genreNames) + genreIndex.estimateBytes()
+                + estimateBytes(authorIds.length, authorNames, authorSurnames) + authorIndex.estimateBytes()
+                + estimateBytes(bookIds.length, bookNames) + bookGenres.length * (long) Integer.BYTES
+                + bookIndex.estimateBytes()
+                + (bookAuthorOffsets.length + bookAuthors.length + authorBookOffsets.length + authorBooks.length)
+                * (long) Integer.BYTES;
+    }
+
+    // null, если книги нет
+    public BookDto getBook(long id) {
+        int b = bookIndex.get(id, -1);
+        if (b < 0) {
+            return null;
+        }
+        List<AuthorDto> authors = new ArrayList<>(bookAuthorOffsets[b + 1] - bookAuthorOffsets[b]);
+        for (int i = bookAuthorOffsets[b]; i < bookAuthorOffsets[b + 1]; i++) {
+            int a = bookAuthors[i];
+            authors.add(AuthorDto.builder()
+                    .id(authorIds[a])
+                    .name(authorNames[a])
+                    .surname(authorSurnames[a])
+                    .build());
+        }
+        return new BookDto(bookIds[b], bookNames[b], genreName(b), authors);
+    }
+
+    // null, если автора нет
+    public AuthorDto getAuthor(long id) {
+        int a = authorIndex.get(id, -1);
+        if (a < 0) {
+            return null;
+        }
+        List<BookDto> books = new ArrayList<>(authorBookOffsets[a + 1] - authorBookOffsets[a]);
+        for (int i = authorBookOffsets[a]; i < authorBookOffsets[a + 1]; i++) {
+            int b = authorBooks[i];
+            books.add(new BookDto(bookIds[b], bookNames[b], genreName(b)));
+        }
+        return new AuthorDto(authorIds[a], authorNames[a], authorSurnames[a], books);
+    }
+
+    // строки без связей и id связанных записей по возрастанию - для изменений поверх снимка (CatalogChanges)
+    BookDto getBookRow(long id) {
+        int b = bookIndex.get(id, -1);
+        return b < 0 ? null : new BookDto(bookIds[b], bookNames[b], genreName(b));
+    }
+
+    AuthorDto getAuthorRow(long id) {
+        int a = authorIndex.get(id, -1);
+        if (a < 0) {
+            return null;
+        }
+        return AuthorDto.builder()
+                .id(authorIds[a])
+                .name(authorNames[a])
+                .surname(authorSurnames[a])
+                .build();
+    }
+
+    long[] getBookAuthorIds(long id) {
+        int b = bookIndex.get(id, -1);
+        return b < 0 ? new long[0] : ids(bookAuthorOffsets, bookAuthors, b, authorIds);
+    }
+
+    long[] getAuthorBookIds(long id) {
+        int a = authorIndex.get(id, -1);
+        return a < 0 ? new long[0] : ids(authorBookOffsets, authorBooks, a, bookIds);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getGenreCount() {
+        return genreIds.length;
+    }
+
+    public int getAuthorCount() {
+        return authorIds.length;
+    }
+
+    public int getBookCount() {
+        return bookIds.length;
+    }
+
+    public int getRelationCount() {
+        return bookAuthors.length;
+    }
+
+    // примерный размер в куче: массивы, словари и строки (заголовки объектов, сжатые ссылки по 4 байта)
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private String genreName(int b) {
+        return bookGenres[b] < 0 ? null : genreNames[bookGenres[b]];
+    }
+
+    private static long[] ids(int[] offsets, int[] targets, int v, long[] targetIds) {
+        long[] ids = new long[offsets[v + 1] - offsets[v]];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = targetIds[targets[offsets[v] + i]];
+        }
+        return ids;
+    }
+
+    private static LongIntHashMap index(long[] ids) {
+        LongIntHashMap index = new LongIntHashMap(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            index.put(ids[i], i);
+        }
+        return index;
+    }
+
+    // сортировка подсчетом по from: порядок пар внутри одной вершины сохраняется
+    private static void fillAdjacency(int[] from, int[] to, int pairs, int[] offsets, int[] targets) {
+        for (int i = 0; i < pairs; i++) {
+            offsets[from[i] + 1]++;
+        }
+        for (int v = 0; v < offsets.length - 1; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < pairs; i++) {
+            targets[next[from[i]]++] = to[i];
+        }
+    }
+
+    private static long estimateBytes(int rows, String[]... columns) {
+        long bytes = rows * (long) Long.BYTES;
+        for (String[] column : columns) {
+            for (String value : column) {
+                bytes += Integer.BYTES; // ссылка в массиве
+                if (value != null) {
+                    // String (24) + byte[] (16) + символы: 1 байт для Latin-1, иначе 2
+                    bytes += 40 + (long) value.length() * (value.chars().allMatch(c -> c < 256) ? 1 : 2);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    // строки добавляются в любом порядке; связи с книгами и жанрами разрешаются в build
+    public static final class Builder {
+        private long[] genreIds = new long[16];
+        private String[] genreNames = new String[16];
+        private int genreCount;
+
+        private long[] authorIds = new long[16];
+        private String[] authorNames = new String[16];
+        private String[] authorSurnames = new String[16];
+        private int authorCount;
+
+        private long[] bookIds = new long[16];
+        private String[] bookNames = new String[16];
+        private long[] bookGenreIds = new long[16];
+        private int bookCount;
+
+        private long[] relationBookIds = new long[16];
+        private long[] relationAuthorIds = new long[16];
+        private int relationCount;
+
+        public void addGenre(long id, String name) {
+            if (genreCount == genreIds.length) {
+                genreIds = Arrays.copyOf(genreIds, genreCount * 2);
+                genreNames = Arrays.copyOf(genreNames, genreCount * 2);
+            }
+            genreIds[genreCount] = id;
+            genreNames[genreCount] = name;
+            genreCount++;
+        }
+
+        public void addAuthor(long id, String name, String surname) {
+            if (authorCount == authorIds.length) {
+                authorIds = Arrays.copyOf(authorIds, authorCount * 2);
+                authorNames = Arrays.copyOf(authorNames, authorCount * 2);
+                authorSurnames = Arrays.copyOf(authorSurnames, authorCount * 2);
+            }
+            authorIds[authorCount] = id;
+            authorNames[authorCount] = name;
+            authorSurnames[authorCount] = surname;
+            authorCount++;
+        }
+
+        public void addBook(long id, String name, long genreId) {
+            if (bookCount == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, bookCount * 2);
+                bookNames = Arrays.copyOf(bookNames, bookCount * 2);
+                bookGenreIds = Arrays.copyOf(bookGenreIds, bookCount * 2);
+            }
+            bookIds[bookCount] = id;
+            bookNames[bookCount] = name;
+            bookGenreIds[bookCount] = genreId;
+            bookCount++;
+        }
+
+        public void addAuthorBook(long bookId, long authorId) {
+            if (relationCount == relationBookIds.length) {
+                relationBookIds = Arrays.copyOf(relationBookIds, relationCount * 2);
+                relationAuthorIds = Arrays.copyOf(relationAuthorIds, relationCount * 2);
+            }
+            relationBookIds[relationCount] = bookId;
+            relationAuthorIds[relationCount] = authorId;
+            relationCount++;
+        }
+
+        public CatalogSnapshot build(long version) {
+            return new CatalogSnapshot(version, this);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.itgirl.library_project.util;
+
+import ru.itgirl.library_project.dto.BookColumnsDto;
+import ru.itgirl.library_project.dto.BookDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Список BookDto -> колоночный BookColumnsDto со словарем жанров
+public final class ColumnsConverter {
+
+    private ColumnsConverter() {
+    }
+
+    public static BookColumnsDto toBookColumns(List<BookDto> books, String nextCursor) {
+        List<String> genres = new ArrayList<>();
+        Map<String, Integer> genreIndexes = new HashMap<>();
+        long[] ids = new long[books.size()];
+        List<String> names = new ArrayList<>(books.size());
+        int[] bookGenres = new int[books.size()];
+        for (int i = 0; i < books.size(); i++) {
+            BookDto book = books.get(i);
+            ids[i] = book.getId();
+            names.add(book.getName());
+            bookGenres[i] = genreIndexes.computeIfAbsent(book.getGenre(), genre -> {
+                genres.add(genre);
+                return genres.size() - 1;
+            });
+        }
+        return BookColumnsDto.builder()
+                .genres(genres)
+                .ids(ids)
+                .names(names)
+                .genreIndexes(bookGenres)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
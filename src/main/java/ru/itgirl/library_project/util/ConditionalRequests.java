@@ -0,0 +1,30 @@
+package ru.itgirl.library_project.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import ru.itgirl.library_project.repository.projection.VersionRow;
+
+import java.util.Optional;
+
+// Условные GET: ETag и Last-Modified из версий строк, 304 - до чтения и конвертации данных
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    // true - клиент прислал актуальные If-None-Match/If-Modified-Since, ответ уже помечен как 304.
+    // Иначе в ответ добавлены ETag и Last-Modified, контроллер отдает тело как обычно
+    public static boolean isNotModified(WebRequest request, Optional<VersionRow> version) {
+        return version.isPresent() && isNotModified(request, version.get());
+    }
+
+    // ETag слабый: одна версия данных отдается в разных представлениях (JSON, CBOR, Smile, колоночный JSON,
+    // со сжатием и без), а ответы с сильным ETag Tomcat не сжимает
+    public static boolean isNotModified(WebRequest request, VersionRow version) {
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified("W/\"" + version.getEtag() + "\"", version.getLastModified());
+    }
+}
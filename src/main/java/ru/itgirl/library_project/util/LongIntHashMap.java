@@ -0,0 +1,59 @@
+package ru.itgirl.library_project.util;
+
+// Словарь long -> int без упаковки в Long/Integer: открытая адресация с линейным пробированием в двух массивах.
+// Размер задается сразу (заполнение не больше половины), 0 - признак пустой ячейки, поэтому ключи должны быть > 0
+public final class LongIntHashMap {
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public void put(long key, int value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        int slot = slot(key);
+        if (keys[slot] == 0) {
+            if (size == keys.length / 2) {
+                throw new IllegalStateException("Map is full: " + size + " keys");
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    public int get(long key, int missingValue) {
+        if (key <= 0) {
+            return missingValue;
+        }
+        int slot = slot(key);
+        return keys[slot] == 0 ? missingValue : values[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long estimateBytes() {
+        return keys.length * (long) Long.BYTES + values.length * (long) Integer.BYTES;
+    }
+
+    // ячейка с этим ключом или первая пустая на пути к ней
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L; // id идут подряд - перемешиваем, чтобы не было длинных серий
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
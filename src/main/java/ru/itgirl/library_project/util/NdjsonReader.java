@@ -0,0 +1,34 @@
+package ru.itgirl.library_project.util;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Читает тело запроса в формате NDJSON (один JSON-объект на строку).
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonReader {
+
+    private final ObjectMapper objectMapper;
+
+    public <T> List<T> readAll(InputStream in, Class<T> type, int maxSize) throws IOException {
+        List<T> items = new ArrayList<>();
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(in)) {
+            while (iterator.hasNextValue()) {
+                if (items.size() == maxSize) {
+                    throw new IllegalArgumentException("Batch size exceeds limit " + maxSize);
+                }
+                items.add(iterator.nextValue());
+            }
+        }
+        return items;
+    }
+}
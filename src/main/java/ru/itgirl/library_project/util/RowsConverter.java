@@ -0,0 +1,98 @@
+package ru.itgirl.library_project.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.repository.projection.AuthorBookRow;
+import ru.itgirl.library_project.repository.projection.GenreBookAuthorRow;
+import ru.itgirl.library_project.repository.projection.GenreCatalogRow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Сборка DTO из плоских строк соединений - общая для чтения через JPA и через R2DBC
+public final class RowsConverter {
+
+    // reader с уже найденным десериализатором - не ищем его заново на каждую книгу
+    private static final ObjectReader AUTHORS_READER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build()
+            .readerFor(new TypeReference<List<AuthorDto>>() {
+            });
+
+    private RowsConverter() {
+    }
+
+    // строка витрины genre_catalog -> BookDto с авторами, без жанра (в GenreDto он и так известен)
+    public static BookDto toBookDto(GenreCatalogRow row) {
+        try {
+            return BookDto.builder()
+                    .id(row.getBookId())
+                    .name(row.getBookName())
+                    .authors(AUTHORS_READER.readValue(row.getAuthors()))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Broken genre_catalog row for book " + row.getBookId(), e);
+        }
+    }
+
+    // то же с жанром - для книги самой по себе (строка из запроса, соединенного с genre)
+    public static BookDto toBookDtoWithGenre(GenreCatalogRow row) {
+        BookDto bookDto = toBookDto(row);
+        bookDto.setGenre(row.getGenreName());
+        return bookDto;
+    }
+
+    // строки автор + книга (отсортированы по автору) -> AuthorDto со списком книг
+    public static List<AuthorDto> toAuthorDtos(List<AuthorBookRow> rows) {
+        Map<Long, AuthorDto> authors = new LinkedHashMap<>();
+        for (AuthorBookRow row : rows) {
+            AuthorDto authorDto = authors.computeIfAbsent(row.getAuthorId(), id -> AuthorDto.builder()
+                    .id(id)
+                    .name(row.getName())
+                    .surname(row.getSurname())
+                    .books(new ArrayList<>())
+                    .build());
+            if (row.getBookId() != null) {
+                authorDto.getBooks().add(new BookDto(row.getBookId(), row.getBookName(), row.getGenre()));
+            }
+        }
+        return new ArrayList<>(authors.values());
+    }
+
+    // строки жанр + книга + автор (отсортированы по книге) одного жанра -> GenreDto
+    public static GenreDto toGenreDto(List<GenreBookAuthorRow> rows) {
+        Map<Long, BookDto> books = new LinkedHashMap<>();
+        for (GenreBookAuthorRow row : rows) {
+            if (row.getBookId() == null) {
+                continue; // жанр без книг
+            }
+            BookDto bookDto = books.computeIfAbsent(row.getBookId(), bookId -> BookDto.builder()
+                    .id(bookId)
+                    .name(row.getBookName())
+                    .authors(new ArrayList<>())
+                    .build());
+            if (row.getAuthorId() != null) {
+                bookDto.getAuthors().add(AuthorDto.builder()
+                        .id(row.getAuthorId())
+                        .name(row.getAuthorName())
+                        .surname(row.getAuthorSurname())
+                        .build());
+            }
+        }
+
+        GenreBookAuthorRow first = rows.get(0);
+        return GenreDto.builder()
+                .id(first.getGenreId())
+                .name(first.getGenreName())
+                .books(new ArrayList<>(books.values()))
+                .build();
+    }
+}
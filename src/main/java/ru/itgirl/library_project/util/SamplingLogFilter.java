@@ -0,0 +1,59 @@
+package ru.itgirl.library_project.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Выборочная запись логов: для логгера задается доля событий INFO и ниже, которая попадет в лог.
+// rates - список "логгер=доля" через запятую, например "ru.itgirl.library_project.service=0.1";
+// для логгера берется самое длинное подходящее имя, без совпадения пишется все. WARN и ERROR пишутся всегда
+public class SamplingLogFilter extends Filter<ILoggingEvent> {
+
+    private final Map<String, Double> rates = new LinkedHashMap<>();
+    private final Map<String, Double> ratesByLogger = new ConcurrentHashMap<>();
+
+    public void setRates(String rates) {
+        this.rates.clear();
+        this.ratesByLogger.clear();
+        if (rates == null || rates.isBlank()) {
+            return;
+        }
+        for (String rate : rates.split(",")) {
+            String[] parts = rate.split("=");
+            if (parts.length != 2) {
+                addWarn("Skip sampling rate '" + rate + "', expected logger=rate");
+                continue;
+            }
+            this.rates.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rates.isEmpty() || event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        double rate = ratesByLogger.computeIfAbsent(event.getLoggerName(), this::findRate);
+        if (rate >= 1) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private double findRate(String loggerName) {
+        String bestMatch = null;
+        for (String name : rates.keySet()) {
+            boolean matches = loggerName.equals(name) || loggerName.startsWith(name + ".");
+            if (matches && (bestMatch == null || name.length() > bestMatch.length())) {
+                bestMatch = name;
+            }
+        }
+        return bestMatch == null ? 1 : rates.get(bestMatch);
+    }
+}
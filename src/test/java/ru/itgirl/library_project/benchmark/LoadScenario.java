@@ -0,0 +1,113 @@
+package ru.itgirl.library_project.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Нагрузочный сценарий: CONCURRENCY клиентов без пауз шлют запросы к /book, /author/{id} и /genre/{id},
+// для каждого адреса печатаются запросы в секунду и 99-й перцентиль задержки.
+// Кэши выключены в наследниках, чтобы каждый запрос доходил до базы.
+// HTTP Basic проверяет пароль в каждом запросе, поэтому BCrypt здесь с минимальной стоимостью -
+// иначе сравнивалась бы скорость хеширования, а не модели потоков
+abstract class LoadScenario {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 200);
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.seconds", 20));
+    private static final List<String> PATHS = List.of(
+            "/book?name=" + URLEncoder.encode("Война и мир", StandardCharsets.UTF_8),
+            "/author/3",
+            "/genre/2");
+
+    @LocalServerPort
+    private int port;
+
+    protected abstract String threadModel();
+
+    @Test
+    public void runScenario() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String authorization = "Basic " + Base64.getEncoder()
+                .encodeToString("user:password".getBytes(StandardCharsets.UTF_8));
+        for (String path : PATHS) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Authorization", authorization)
+                    .build();
+            load(client, request, WARMUP);
+            Result result = load(client, request, DURATION);
+            System.out.printf("%-8s %-40s %8.0f req/s  p99=%7.2f ms  errors=%d%n", threadModel(), path,
+                    result.requests() / (double) DURATION.toSeconds(), result.p99Millis(), result.errors());
+        }
+    }
+
+    private Result load(HttpClient client, HttpRequest request, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> workers = new ArrayList<>(CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long[] all = new long[0];
+        for (Future<long[]> worker : workers) {
+            long[] latencies = worker.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        Arrays.sort(all);
+        double p99 = all.length == 0 ? 0 : all[(int) Math.ceil(all.length * 0.99) - 1] / 1e6;
+        return new Result(all.length, p99, errors.get());
+    }
+
+    @TestConfiguration
+    static class FastPasswordEncoderConfig {
+
+        @Bean
+        @Primary
+        public PasswordEncoder fastPasswordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    private record Result(long requests, double p99Millis, long errors) {
+    }
+}
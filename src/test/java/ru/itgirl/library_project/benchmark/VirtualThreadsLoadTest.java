@@ -0,0 +1,23 @@
+package ru.itgirl.library_project.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+// Запуск: mvn test -Dtest='*ThreadsLoadTest' -Dbenchmark=true [-Dload.concurrency=200 -Dload.seconds=20]
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.cache.type=none",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "logging.level.ru.itgirl.library_project=WARN"
+})
+@Import(LoadScenario.FastPasswordEncoderConfig.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class VirtualThreadsLoadTest extends LoadScenario {
+
+    @Override
+    protected String threadModel() {
+        return "virtual";
+    }
+}
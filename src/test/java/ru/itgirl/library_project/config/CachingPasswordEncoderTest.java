@@ -0,0 +1,53 @@
+package ru.itgirl.library_project.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingPasswordEncoderTest {
+
+    @Test
+    public void testVerifiedPasswordCached() {
+        CountingEncoder bcrypt = new CountingEncoder();
+        PasswordEncoder encoder = new CachingPasswordEncoder(bcrypt, 100, Duration.ofMinutes(5));
+        String hash = encoder.encode("password");
+
+        Assertions.assertTrue(encoder.matches("password", hash));
+        Assertions.assertTrue(encoder.matches("password", hash));
+        // BCrypt выполнился только для первой проверки
+        Assertions.assertEquals(1, bcrypt.checks.get());
+    }
+
+    @Test
+    public void testWrongPasswordNotCached() {
+        CountingEncoder bcrypt = new CountingEncoder();
+        PasswordEncoder encoder = new CachingPasswordEncoder(bcrypt, 100, Duration.ofMinutes(5));
+        String hash = encoder.encode("password");
+
+        Assertions.assertFalse(encoder.matches("wrong", hash));
+        Assertions.assertFalse(encoder.matches("wrong", hash));
+        Assertions.assertEquals(2, bcrypt.checks.get());
+        // правильный пароль к другому хэшу (например, после смены пароля) проверяется заново
+        Assertions.assertTrue(encoder.matches("password", hash));
+        Assertions.assertFalse(encoder.matches("password", encoder.encode("new password")));
+        Assertions.assertEquals(4, bcrypt.checks.get());
+    }
+
+    private static class CountingEncoder extends BCryptPasswordEncoder {
+        private final AtomicInteger checks = new AtomicInteger();
+
+        CountingEncoder() {
+            super(4);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            checks.incrementAndGet();
+            return super.matches(rawPassword, encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ru.itgirl.library_project.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.service.AuthorService;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Две "реплики" - соединения с той же локальной базой, отличаются только ApplicationName,
+// третья указывает на несуществующий сервер. По application_name видно, куда ушла транзакция
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/library-project?ApplicationName=primary",
+        "library.datasource.replica-urls=jdbc:postgresql://localhost:5432/library-project?ApplicationName=replica-a,"
+                + "jdbc:postgresql://localhost:5432/library-project?ApplicationName=replica-b,"
+                + "jdbc:postgresql://localhost:1/library-project?ApplicationName=broken",
+        "spring.datasource.hikari.maximum-pool-size=5",
+        "spring.datasource.hikari.minimum-idle=1",
+        "spring.datasource.hikari.connection-timeout=1000"})
+public class ReadWriteRoutingDataSourceTest {
+
+    private static final String APPLICATION_NAME = "SELECT current_setting('application_name')";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testReadOnlyTransactionsBalancedOverReplicas() {
+        login("reader");
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            used.add(applicationName(transactionManager, dataSource, true));
+        }
+        // недоступная реплика пропускается
+        Assertions.assertEquals(Set.of("replica-a", "replica-b"), used);
+    }
+
+    @Test
+    public void testWritesGoToPrimary() {
+        login("reader");
+        Assertions.assertEquals("primary", applicationName(transactionManager, dataSource, false));
+    }
+
+    @Test
+    public void testReadYourWrites() {
+        login("writer");
+        applicationName(transactionManager, dataSource, false);
+        // только что записавший пользователь читает с основной базы, остальные - по-прежнему с реплик
+        Assertions.assertEquals("primary", applicationName(transactionManager, dataSource, true));
+        login("reader");
+        Assertions.assertTrue(applicationName(transactionManager, dataSource, true).startsWith("replica-"));
+    }
+
+    // JPA-чтение через ленивое соединение с реплики
+    @Test
+    public void testServiceReadsThroughReplica() {
+        login("reader");
+        AuthorDto authorDto = authorService.getAuthorById(3L);
+        Assertions.assertEquals("Толстой", authorDto.getSurname());
+    }
+
+    @Test
+    public void testReplicaLags() {
+        Map<String, Long> lags = routingDataSource.getReplicaLags();
+        Assertions.assertEquals(List.of("replica-1", "replica-2", "replica-3"), List.copyOf(lags.keySet()));
+        Assertions.assertEquals(0L, lags.get("replica-1"));
+        Assertions.assertEquals(0L, lags.get("replica-2"));
+        Assertions.assertNull(lags.get("replica-3"));
+    }
+
+    @Test
+    public void testFallbackToPrimaryWhenNoReplicaAvailable() throws Exception {
+        HikariDataSource broken = new HikariDataSource();
+        broken.setJdbcUrl("jdbc:postgresql://localhost:1/library-project");
+        broken.setConnectionTimeout(250);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource,
+                Map.of("broken", broken), Duration.ofSeconds(5), Duration.ofSeconds(1));
+        routing.afterPropertiesSet();
+        try {
+            DataSource lazy = new LazyConnectionDataSourceProxy(routing);
+            Assertions.assertEquals("primary",
+                    applicationName(new DataSourceTransactionManager(lazy), lazy, true));
+        } finally {
+            routing.close();
+        }
+    }
+
+    private static String applicationName(PlatformTransactionManager transactionManager, DataSource dataSource,
+                                          boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(APPLICATION_NAME, String.class));
+    }
+
+    private static void login(String user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.itgirl.library_project.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.itgirl.library_project.dto.TokenDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Токен получаем один раз по логину и паролю, дальше запросы идут с Bearer вместо Basic
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthTokenTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testUserToken() throws Exception {
+        String token = issueToken("user");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/author/{id}", 1L)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        // роли переносятся в токен: у user нет ADMIN
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/v2").param("name", "Война и мир")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+        // продлить токен самим токеном нельзя
+        mockMvc.perform(MockMvcRequestBuilders.post("/auth/token")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testAdminToken() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/v2").param("name", "Война и мир")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + issueToken("admin")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testInvalidToken() throws Exception {
+        String token = issueToken("user");
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/author/{id}", 1L)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + forged))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String issueToken(String username) throws Exception {
+        String basic = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":password").getBytes(StandardCharsets.UTF_8));
+        String body = mockMvc.perform(MockMvcRequestBuilders.post("/auth/token")
+                        .header(HttpHeaders.AUTHORIZATION, basic))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readValue(body, TokenDto.class).getToken();
+    }
+}
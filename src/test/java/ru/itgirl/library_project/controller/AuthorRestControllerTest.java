@@ -126,4 +126,33 @@ public class AuthorRestControllerTest {
                 .andExpect(status().isOk()); // Проверяем, что статус ответа 200 OK
     }
 
+    @Test
+    public void testGetAuthorsPage() throws Exception {
+        // Первая страница из двух авторов - книги в каталог не попадают
+        mockMvc.perform(MockMvcRequestBuilders.get("/author/catalog")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(1L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].books").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    public void testCreateAuthorsBatchNdjson() throws Exception {
+        // Один автор на строку; у второго слишком короткое имя - ошибка валидации только для него
+        String authorsNdjson = "{\"name\":\"Антон\",\"surname\":\"Чехов\"}\n"
+                + "{\"name\":\"Ив\",\"surname\":\"Бунин\"}\n";
+        mockMvc.perform(MockMvcRequestBuilders.post("/author/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(authorsNdjson))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].success").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].result.id").isNumber())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].result.surname").value("Чехов"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].success").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].error").isNotEmpty());
+    }
+
 }
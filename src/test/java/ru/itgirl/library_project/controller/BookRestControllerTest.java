@@ -6,12 +6,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import ru.itgirl.library_project.dto.BookCreateDto;
 import ru.itgirl.library_project.dto.BookDto;
 import ru.itgirl.library_project.dto.BookUpdateDto;
 
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -113,4 +117,55 @@ public class BookRestControllerTest {
                 .andExpect(status().isOk()); // Проверяем, что статус ответа 200 OK
     }
 
+    @Test
+    public void testGetBooksPage() throws Exception {
+        // Первая страница из одной книги - книги отсортированы по id
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/catalog")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(1L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    public void testGetBooksPageWithBadCursor() throws Exception {
+        // Испорченный cursor - ошибка клиента, а не сервера
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/catalog")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.detail").value("Invalid cursor: not-a-cursor"));
+    }
+
+    @Test
+    public void testStreamBooksNdjson() throws Exception {
+        // Ответ пишется асинхронно, поэтому сначала дожидаемся его
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/book/catalog/stream")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("{\"id\":1,")));
+    }
+
+    @Test
+    public void testCreateBooksBatch() throws Exception {
+        // Вторая книга с несуществующим жанром - ошибка только для нее, результаты в порядке входных данных
+        String booksJson = "[{\"name\":\"Анна Каренина\",\"genre\":\"Роман\"},"
+                + "{\"name\":\"Нет такой\",\"genre\":\"Нет такого жанра\"}]";
+        mockMvc.perform(MockMvcRequestBuilders.post("/book/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(booksJson))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].index").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].success").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].result.name").value("Анна Каренина"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].result.genre").value("Роман"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].index").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].success").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].error").isNotEmpty());
+    }
+
 }
@@ -0,0 +1,194 @@
+package ru.itgirl.library_project.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import ru.itgirl.library_project.dto.AuthorCreateDto;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BatchItemResultDto;
+import ru.itgirl.library_project.dto.ChangeEventDto;
+import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.service.ChangeFeedService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Поток изменений GET /changes/stream через настоящее HTTP-соединение.
+// Relay вызывается из теста; очередь подписчика - на 2 события, история - на 4, чтобы проверить отключение и reset
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"library.changes.enabled=true", "library.changes.relay-interval=1h",
+                "library.changes.relay-on-commit=false", "library.changes.stream.buffer-size=2",
+                "library.changes.stream.history-size=4", "library.changes.stream.heartbeat-interval=1s"})
+@RecordApplicationEvents
+public class ChangeStreamTest {
+
+    // конец потока - сервер закрыл соединение
+    private static final SseEvent END = new SseEvent(null, null, null);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private final List<Long> createdIds = new ArrayList<>();
+    private final List<Stream<String>> connections = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        changeFeedService.relayChanges(); // то, что осталось от других тестов
+        applicationEvents.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connections.forEach(Stream::close);
+        createdIds.forEach(authorService::deleteAuthor);
+        changeFeedService.relayChanges();
+    }
+
+    @Test
+    public void testLiveEventsAndResume() throws Exception {
+        BlockingQueue<SseEvent> stream = connect(null);
+        AuthorDto first = createAuthor("Антон", "Чехов");
+        changeFeedService.relayChanges();
+
+        SseEvent event = next(stream);
+        Assertions.assertEquals("AUTHOR", event.name());
+        ChangeEventDto change = objectMapper.readValue(event.data(), ChangeEventDto.class);
+        Assertions.assertEquals(first.getId(), change.getId());
+        Assertions.assertEquals(Long.toString(change.getSequence()), event.id());
+
+        // пока клиент был отключен, появился еще автор - после переподключения с Last-Event-ID он досылается
+        connections.get(0).close();
+        AuthorDto second = createAuthor("Иван", "Бунин");
+        changeFeedService.relayChanges();
+
+        SseEvent missed = next(connect(change.getSequence()));
+        Assertions.assertEquals(second.getId(), objectMapper.readValue(missed.data(), ChangeEventDto.class).getId());
+        Assertions.assertTrue(Long.parseLong(missed.id()) > change.getSequence());
+    }
+
+    @Test
+    public void testResetWhenHistoryMissing() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createAuthor("Автор", "История " + i);
+            changeFeedService.relayChanges();
+        }
+        List<ChangeEventDto> published = applicationEvents.stream(ChangeEventDto.class).toList();
+        Assertions.assertEquals(5, published.size());
+
+        // первое событие уже вытеснено из истории - клиент перечитывает каталог целиком,
+        // поэтому история ему не досылается, дальше идут только новые события
+        BlockingQueue<SseEvent> stream = connect(published.get(0).getSequence() - 1);
+        Assertions.assertEquals("reset", next(stream).name());
+        AuthorDto next = createAuthor("Автор", "После reset");
+        changeFeedService.relayChanges();
+        Assertions.assertEquals(next.getId(), objectMapper.readValue(next(stream).data(), ChangeEventDto.class).getId());
+    }
+
+    @Test
+    public void testSlowSubscriberDisconnected() throws Exception {
+        BlockingQueue<SseEvent> stream = connect(null);
+        // одна пачка из трех событий не помещается в очередь на два - подписчик отключается
+        List<BatchItemResultDto<AuthorDto>> results = authorService.createAuthors(List.of(
+                new AuthorCreateDto("Максим", "Горький"),
+                new AuthorCreateDto("Александр", "Куприн"),
+                new AuthorCreateDto("Леонид", "Андреев")));
+        results.forEach(result -> createdIds.add(result.getResult().getId()));
+        changeFeedService.relayChanges();
+        Assertions.assertSame(END, next(stream));
+
+        // и после переподключения получает все три события из истории
+        List<ChangeEventDto> published = applicationEvents.stream(ChangeEventDto.class).toList();
+        BlockingQueue<SseEvent> resumed = connect(published.get(0).getSequence() - 1);
+        for (ChangeEventDto expected : published) {
+            Assertions.assertEquals(Long.toString(expected.getSequence()), next(resumed).id());
+        }
+    }
+
+    private AuthorDto createAuthor(String name, String surname) {
+        AuthorDto authorDto = authorService.createAuthor(new AuthorCreateDto(name, surname));
+        createdIds.add(authorDto.getId());
+        return authorDto;
+    }
+
+    // события разбираются в фоне по мере прихода строк
+    private BlockingQueue<SseEvent> connect(Long lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/changes/stream"))
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                        .encodeToString("user:password".getBytes(StandardCharsets.UTF_8)));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", Long.toString(lastEventId));
+        }
+        HttpResponse<Stream<String>> response = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()
+                .send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        Assertions.assertEquals(200, response.statusCode());
+        connections.add(response.body());
+
+        BlockingQueue<SseEvent> events = new LinkedBlockingQueue<>();
+        Thread.ofVirtual().start(() -> {
+            String id = null;
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            try {
+                for (String line : (Iterable<String>) response.body()::iterator) {
+                    if (line.isEmpty()) {
+                        if (name != null) {
+                            events.add(new SseEvent(id, name, data.toString()));
+                        }
+                        id = null;
+                        name = null;
+                        data.setLength(0);
+                    } else if (line.startsWith("id:")) {
+                        id = line.substring(3);
+                    } else if (line.startsWith("event:")) {
+                        name = line.substring(6);
+                    } else if (line.startsWith("data:")) {
+                        data.append(line.substring(5));
+                    }
+                }
+            } catch (RuntimeException e) {
+                // соединение закрыто самим тестом
+            }
+            events.add(END);
+        });
+        return events;
+    }
+
+    private static SseEvent next(BlockingQueue<SseEvent> events) throws InterruptedException {
+        SseEvent event = events.poll(10, TimeUnit.SECONDS);
+        Assertions.assertNotNull(event, "No event in 10 seconds");
+        return event;
+    }
+
+    private record SseEvent(String id, String name, String data) {
+    }
+}
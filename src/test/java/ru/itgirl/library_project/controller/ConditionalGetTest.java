@@ -0,0 +1,99 @@
+package ru.itgirl.library_project.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.BookCreateDto;
+import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.service.BookService;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Условные GET: с актуальным ETag - 304 без тела, после изменения данных - снова 200 с новым ETag
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@Transactional
+public class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void testAuthorNotModified() throws Exception {
+        String etag = getEtag(MockMvcRequestBuilders.get("/author/{id}", 3L));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/author/{id}", 3L).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void testAuthorAndGenreModifiedAfterUpdate() throws Exception {
+        String authorEtag = getEtag(MockMvcRequestBuilders.get("/author/{id}", 3L));
+        String genreEtag = getEtag(MockMvcRequestBuilders.get("/genre/{id}", 2L)); // Война и мир - роман Толстого
+
+        authorService.updateAuthor(new AuthorUpdateDto(3L, "Лев", "Толстой-Обновленный"));
+        entityManager.flush();
+
+        Assertions.assertNotEquals(authorEtag, getEtag(MockMvcRequestBuilders.get("/author/{id}", 3L)
+                .header(HttpHeaders.IF_NONE_MATCH, authorEtag)));
+        Assertions.assertNotEquals(genreEtag, getEtag(MockMvcRequestBuilders.get("/genre/{id}", 2L)
+                .header(HttpHeaders.IF_NONE_MATCH, genreEtag)));
+    }
+
+    @Test
+    public void testBookByNameNotModified() throws Exception {
+        String etag = getEtag(MockMvcRequestBuilders.get("/book").param("name", "Война и мир"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/book").param("name", "Война и мир")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testBooksCatalogModifiedAfterCreate() throws Exception {
+        String etag = getEtag(MockMvcRequestBuilders.get("/book/catalog"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/catalog").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        BookCreateDto bookCreateDto = new BookCreateDto();
+        bookCreateDto.setName("Анна Каренина");
+        bookCreateDto.setGenre("Роман");
+        bookService.createBook(bookCreateDto);
+        entityManager.flush();
+
+        // новая книга меняет счетчик изменений таблицы book
+        Assertions.assertNotEquals(etag, getEtag(MockMvcRequestBuilders.get("/book/catalog")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)));
+    }
+
+    private String getEtag(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+}
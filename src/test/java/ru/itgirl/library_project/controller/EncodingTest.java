@@ -0,0 +1,107 @@
+package ru.itgirl.library_project.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.itgirl.library_project.dto.BookColumnsDto;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Представления каталога: JSON по умолчанию, CBOR, Smile, колоночный JSON и сжатие gzip в Tomcat
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.compression.min-response-size=1")
+@AutoConfigureMockMvc(addFilters = false)
+public class EncodingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void testJsonByDefault() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/catalog"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].genre").exists());
+    }
+
+    @Test
+    public void testCbor() throws Exception {
+        byte[] body = getBody(MediaType.APPLICATION_CBOR_VALUE);
+        JsonNode page = new CBORMapper().readTree(body);
+        Assertions.assertFalse(page.get("items").isEmpty());
+    }
+
+    @Test
+    public void testSmile() throws Exception {
+        byte[] body = getBody("application/x-jackson-smile");
+        JsonNode page = new SmileMapper().readTree(body);
+        Assertions.assertFalse(page.get("items").isEmpty());
+    }
+
+    @Test
+    public void testColumns() throws Exception {
+        JsonNode columns = new ObjectMapper().readTree(getBody(BookColumnsDto.MEDIA_TYPE));
+        JsonNode json = new ObjectMapper().readTree(getBody(MediaType.APPLICATION_JSON_VALUE));
+
+        // каждая книга восстанавливается по индексу жанра в словаре
+        JsonNode items = json.get("items");
+        Assertions.assertEquals(items.size(), columns.get("ids").size());
+        for (int i = 0; i < items.size(); i++) {
+            Assertions.assertEquals(items.get(i).get("id").asLong(), columns.get("ids").get(i).asLong());
+            Assertions.assertEquals(items.get(i).get("name").asText(), columns.get("names").get(i).asText());
+            String genre = columns.get("genres").get(columns.get("genreIndexes").get(i).asInt()).asText();
+            Assertions.assertEquals(items.get(i).get("genre").asText(), genre);
+        }
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/book/catalog"))
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                        .encodeToString("user:password".getBytes(StandardCharsets.UTF_8)))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .build();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("gzip", response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+        try (InputStream body = new GZIPInputStream(response.body())) {
+            Assertions.assertFalse(new ObjectMapper().readTree(body).get("items").isEmpty());
+        }
+    }
+
+    private byte[] getBody(String accept) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get("/book/catalog").accept(accept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+}
@@ -0,0 +1,69 @@
+package ru.itgirl.library_project.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Выгрузка каталога: книги по возрастанию id вместе с жанром и авторами, продолжение после заданного id
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+public class ExportRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testExportCsv() throws Exception {
+        String[] lines = export(MockMvcRequestBuilders.get("/export/books").accept("text/csv"), "text/csv").split("\n");
+        Assertions.assertEquals("id,name,genre,authors", lines[0]);
+        Assertions.assertEquals("1,Война и мир,Роман,Лев Толстой", lines[1]);
+    }
+
+    @Test
+    public void testExportNdjsonAfterId() throws Exception {
+        String[] lines = export(MockMvcRequestBuilders.get("/export/books")
+                .param("after", "1")
+                .accept(MediaType.APPLICATION_NDJSON), MediaType.APPLICATION_NDJSON_VALUE).split("\n");
+        // Война и мир (id 1) уже получена - выгрузка начинается со следующей книги
+        JsonNode first = objectMapper.readTree(lines[0]);
+        Assertions.assertEquals(2, first.get("id").asLong());
+        Assertions.assertEquals("Преступление и наказание", first.get("name").asText());
+        Assertions.assertEquals("Роман", first.get("genre").asText());
+        Assertions.assertEquals("Достоевский", first.get("authors").get(0).get("surname").asText());
+        long previousId = 0;
+        for (String line : lines) {
+            long id = objectMapper.readTree(line).get("id").asLong();
+            Assertions.assertTrue(id > previousId);
+            previousId = id;
+        }
+    }
+
+    // Content-Type нужен и клиентам, и для сжатия ответа
+    private String export(MockHttpServletRequestBuilder requestBuilder, String mediaType) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,144 @@
+package ru.itgirl.library_project.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// GraphQL: отдаются только запрошенные поля, связи загружаются одним запросом на уровень,
+// слишком глубокие и слишком дорогие запросы отклоняются до выполнения
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc(addFilters = false)
+public class GraphQlControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testOnlyRequestedFields() throws Exception {
+        JsonNode book = execute("{ book(id: 1) { name } }").at("/data/book");
+        Assertions.assertEquals("Война и мир", book.get("name").asText());
+        Assertions.assertEquals(1, book.size());
+        // связи не запрошены - и не загружаются
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testRelationsBatchedPerLevel() throws Exception {
+        JsonNode authors = execute("""
+                { authors(ids: [3, 5, -1]) { surname books { name genre { name } authors { surname } } } }""")
+                .at("/data/authors");
+        Assertions.assertEquals("Толстой", authors.at("/0/surname").asText());
+        Assertions.assertEquals("Война и мир", authors.at("/0/books/0/name").asText());
+        Assertions.assertEquals("Роман", authors.at("/0/books/0/genre/name").asText());
+        Assertions.assertEquals("Достоевский", authors.at("/1/books/0/authors/0/surname").asText());
+        Assertions.assertTrue(authors.get(2).isNull()); // ненайденный id
+        // авторы, их книги, жанры книг, авторы книг - по одному запросу, сколько бы ни было авторов и книг
+        Assertions.assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testBookPage() throws Exception {
+        JsonNode page = execute("{ bookPage(first: 1) { items { id name } nextCursor } }").at("/data/bookPage");
+        Assertions.assertEquals("Война и мир", page.at("/items/0/name").asText());
+        JsonNode next = execute("{ bookPage(first: 1, cursor: \"" + page.get("nextCursor").asText() + "\") "
+                + "{ items { name } } }").at("/data/bookPage");
+        Assertions.assertEquals("Преступление и наказание", next.at("/items/0/name").asText());
+    }
+
+    @Test
+    public void testBadCursor() throws Exception {
+        JsonNode result = execute("{ bookPage(cursor: \"not-a-cursor\") { nextCursor } }");
+        Assertions.assertEquals("BAD_REQUEST", result.at("/errors/0/extensions/classification").asText());
+    }
+
+    @Test
+    public void testRelationBooksPaged() throws Exception {
+        JsonNode books = execute("{ genres { name books(first: 1) { name cursor } } }").at("/data/genres");
+        JsonNode novels = null;
+        for (JsonNode genre : books) {
+            Assertions.assertTrue(genre.get("books").size() <= 1);
+            if ("Роман".equals(genre.get("name").asText())) {
+                novels = genre.get("books");
+            }
+        }
+        Assertions.assertEquals("Война и мир", novels.at("/0/name").asText());
+        // жанры и их книги - по одному запросу, книг у каждого жанра не больше first
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+
+        JsonNode next = execute("{ genre(id: 2) { books(first: 1, cursor: \"" + novels.at("/0/cursor").asText()
+                + "\") { name } } }").at("/data/genre/books");
+        Assertions.assertEquals("Преступление и наказание", next.at("/0/name").asText());
+
+        // без first - не больше library.graphql.list-size книг на жанр, а не вся таблица
+        for (JsonNode genre : execute("{ genres { books { id } } }").at("/data/genres")) {
+            Assertions.assertTrue(genre.get("books").size() <= 10);
+        }
+    }
+
+    @Test
+    public void testRelationBooksPricedByFirst() throws Exception {
+        // книги связей оцениваются по first, а не по фиксированному list-size
+        JsonNode result = execute("{ genres { books(first: 5000) { id name } } }");
+        Assertions.assertTrue(result.at("/errors/0/message").asText().contains("complexity"));
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testDepthLimit() throws Exception {
+        JsonNode result = execute("""
+                { genre(id: 2) { books { authors { books { authors { books { name } } } } } } }""");
+        Assertions.assertTrue(result.at("/errors/0/message").asText().contains("depth"));
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testComplexityLimit() throws Exception {
+        // 1000 книг страницы, у каждой ~10 авторов с ~10 книгами
+        JsonNode result = execute("{ bookPage(first: 1000) { items { authors { books { name } } } } }");
+        Assertions.assertTrue(result.at("/errors/0/message").asText().contains("complexity"));
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private JsonNode execute(String query) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/graphql")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("query", query))))
+                .andReturn();
+        // ответ асинхронный, если выполнение не успело завершиться в потоке запроса
+        if (mvcResult.getRequest().isAsyncStarted()) {
+            mvcResult = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult)).andReturn();
+        }
+        Assertions.assertEquals(200, mvcResult.getResponse().getStatus());
+        String response = mvcResult.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(response);
+    }
+}
@@ -0,0 +1,168 @@
+package ru.itgirl.library_project.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.service.BookService;
+import ru.itgirl.library_project.service.GenreService;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Импорт каталога: новые жанры и авторы создаются один раз, существующие находятся по имени,
+// ошибочные строки попадают в отчет. @Transactional - порции импорта откатываются вместе с тестом
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@Transactional
+public class ImportRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // проверки внутри транзакции теста кладут в кэши импортированные книги, а откат их оттуда не убирает
+    @AfterTransaction
+    public void evictCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions(); // и кэш запросов
+    }
+
+    @Test
+    public void testImportCsv() throws Exception {
+        String csv = """
+                name,genre,authors
+                Анна Каренина (импорт),Роман,Лев Толстой
+                "Повести, рассказы",Повесть,Иван Тургенев; Николай Гоголь
+                ,Роман,Лев Толстой
+                Отцы и дети,Роман,Тургенев
+                """;
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/import/books")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.rowsRead").value(4))
+                .andExpect(jsonPath("$.rowsImported").value(2))
+                .andExpect(jsonPath("$.rowsRejected").value(2))
+                .andExpect(jsonPath("$.genresCreated").value(1)) // Повесть
+                .andExpect(jsonPath("$.authorsCreated").value(1)) // Тургенев
+                .andExpect(jsonPath("$.rejectedRows[0].line").value(4))
+                .andExpect(jsonPath("$.rejectedRows[1].line").value(5));
+
+        // книга привязана к существующему автору
+        Assertions.assertEquals("Роман", bookService.getByNameV1("Анна Каренина (импорт)").getGenre());
+        Assertions.assertTrue(authorService.getAuthorById(3L).getBooks().stream()
+                .map(BookDto::getName)
+                .anyMatch("Анна Каренина (импорт)"::equals));
+
+        // витрина нового жанра уже содержит книгу с обоими авторами
+        GenreDto genreDto = genreService.getGenreById(genreRepository.findByName("Повесть").getId());
+        Assertions.assertEquals(1, genreDto.getBooks().size());
+        Assertions.assertEquals("Повести, рассказы", genreDto.getBooks().get(0).getName());
+        Assertions.assertEquals(List.of("Гоголь", "Тургенев"), genreDto.getBooks().get(0).getAuthors().stream()
+                .map(AuthorDto::getSurname)
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    public void testImportCsvQuotedLikeExport() throws Exception {
+        // так пишет выгрузка (COPY ... FORMAT csv): лишняя колонка id, значения с запятыми и переводами строк в кавычках
+        String csv = """
+                id,name,genre,authors,"примечание, если есть"
+                1,"Записки
+                из подполья",Повесть,Федор Достоевский,
+                2,"Бесы, роман",Роман,Федор Достоевский,"первая строка
+                вторая строка"
+                3,,Роман,,
+                """;
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/import/books")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.rowsRead").value(3))
+                .andExpect(jsonPath("$.rowsImported").value(2))
+                .andExpect(jsonPath("$.rowsRejected").value(1))
+                .andExpect(jsonPath("$.authorsCreated").value(0))
+                .andExpect(jsonPath("$.rejectedRows[0].line").value(6)); // строка файла, а не номер записи
+
+        Assertions.assertEquals("Повесть", bookService.getByNameV1("Записки\nиз подполья").getGenre());
+        Assertions.assertEquals("Роман", bookService.getByNameV1("Бесы, роман").getGenre());
+    }
+
+    @Test
+    public void testImportCsvEmptyAndBadHeader() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/import/books").contentType("text/csv").content(""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.rowsRead").value(0));
+        mockMvc.perform(MockMvcRequestBuilders.post("/import/books").contentType("text/csv").content("title,genre\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("FAILED"));
+    }
+
+    @Test
+    public void testImportNdjsonAndReport() throws Exception {
+        String ndjson = """
+                {"name":"Белая гвардия","genre":"Роман","authors":[{"name":"Михаил","surname":"Булгаков"}]}
+                {"name":"Новая книга","genre":"Роман","authors":[{"name":"Автор","surname":"Новый"}]}
+                {"name":"Еще одна книга","genre":"Роман","authors":[{"name":"Автор","surname":"Новый"}]}
+                {"name":"Сломанная строка",
+                """;
+
+        String response = mockMvc.perform(MockMvcRequestBuilders.post("/import/books")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsImported").value(3))
+                .andExpect(jsonPath("$.rowsRejected").value(1))
+                .andExpect(jsonPath("$.genresCreated").value(0))
+                .andExpect(jsonPath("$.authorsCreated").value(1)) // одинаковый автор в двух строках создается один раз
+                .andReturn().getResponse().getContentAsString();
+        long id = JsonPath.parse(response).read("$.id", Long.class);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/import/jobs/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.format").value("ndjson"))
+                .andExpect(jsonPath("$.rejectedRows[0].line").value(4));
+    }
+}
@@ -0,0 +1,167 @@
+package ru.itgirl.library_project.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.service.AuthorService;
+import ru.itgirl.library_project.service.GenreService;
+import ru.itgirl.library_project.service.LookupService;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Пакетное чтение по id: по одному SQL-запросу на тип, ненайденный id - ошибка своего элемента,
+// результаты совпадают с чтением по одному id
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "library.lookup.window=200ms"})
+@AutoConfigureMockMvc(addFilters = false)
+@Transactional
+public class LookupRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private LookupService lookupService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // чтения по одному id не должны браться из кэшей, заполненных другими тестами
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    public void testGetAuthorsByIds() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/author").param("ids", "3,5,-1,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].result.surname").value("Толстой"))
+                .andExpect(jsonPath("$[0].result.books[0].name").value("Война и мир"))
+                .andExpect(jsonPath("$[1].result.surname").value("Достоевский"))
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].success").value(false))
+                .andExpect(jsonPath("$[2].error").value("Author with id -1 not found"))
+                .andExpect(jsonPath("$[3].result.surname").value("Толстой"));
+        // повторный id берется из уже загруженного
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetBooksByIds() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/book").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].result.name").value("Война и мир"))
+                .andExpect(jsonPath("$[0].result.genre").value("Роман"))
+                .andExpect(jsonPath("$[0].result.authors[0].surname").value("Толстой"))
+                .andExpect(jsonPath("$[1].result.name").value("Преступление и наказание"));
+    }
+
+    @Test
+    public void testLookupMixedKeys() throws Exception {
+        String body = """
+                {"authors": [3, 5, 2], "books": [2, -1], "genres": [2]}""";
+        mockMvc.perform(MockMvcRequestBuilders.post("/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.authors", hasSize(3)))
+                .andExpect(jsonPath("$.books[0].result.authors[0].surname").value("Достоевский"))
+                .andExpect(jsonPath("$.books[1].error").value("Book with id -1 not found"))
+                .andExpect(jsonPath("$.genres[0].result.name").value("Роман"));
+        // один запрос на авторов, один на книги, один на жанры
+        Assertions.assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testLookupMatchesSingleReads() throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders.post("/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"authors\": [3], \"genres\": [2]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode result = objectMapper.readTree(response);
+        Assertions.assertEquals(toTree(authorService.getAuthorById(3L)),
+                result.at("/authors/0/result"));
+        Assertions.assertEquals(toTree(genreService.getGenreById(2L)),
+                result.at("/genres/0/result"));
+    }
+
+    @Test
+    public void testSingleReadsCoalesced() throws Exception {
+        // одиночные запросы разных клиентов в пределах окна - один запрос WHERE a.id in (...)
+        List<CompletableFuture<String>> responses = List.of(3L, 5L, 3L).stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> getSurname("/author/{id}", id)))
+                .toList();
+        Assertions.assertEquals(List.of("Толстой", "Достоевский", "Толстой"),
+                responses.stream().map(CompletableFuture::join).toList());
+        Assertions.assertEquals(1, countQueries("a.id in :ids"));
+        // прочитанное попало в кэш getAuthorById - повторное чтение без запроса
+        Assertions.assertEquals("Толстой", lookupService.getAuthorById(3L).getSurname());
+        Assertions.assertEquals(1, countQueries("a.id in :ids"));
+        Assertions.assertEquals("Роман", lookupService.getGenreById(2L).getName());
+        Assertions.assertThrows(NoSuchElementException.class, () -> lookupService.getAuthorById(-1L));
+    }
+
+    private String getSurname(String url, Long id) {
+        try {
+            String response = mockMvc.perform(MockMvcRequestBuilders.get(url, id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            return objectMapper.readTree(response).get("surname").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long countQueries(String fragment) {
+        return Arrays.stream(statistics.getQueries())
+                .filter(query -> query.contains(fragment))
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+                .sum();
+    }
+
+    // через строку: числа в дереве должны быть того же типа, что и при разборе ответа
+    private JsonNode toTree(Object value) throws Exception {
+        return objectMapper.readTree(objectMapper.writeValueAsString(value));
+    }
+}
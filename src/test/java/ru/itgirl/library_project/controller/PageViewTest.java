@@ -0,0 +1,93 @@
+package ru.itgirl.library_project.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.itgirl.library_project.config.CacheConfig;
+import ru.itgirl.library_project.dto.BookCreateDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.service.BookService;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// HTML-страницы каталога: постранично, из кэша, а после изменения каталога - заново
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+public class PageViewTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    public void testBooksPageHasNextLink() throws Exception {
+        String html = getHtml("/books?size=1");
+        Assertions.assertTrue(html.contains("BOOKS"));
+        Assertions.assertTrue(html.contains("href=\"/books?cursor="));
+    }
+
+    @Test
+    public void testAuthorsPageCached() throws Exception {
+        String html = getHtml("/authors?size=2");
+        Assertions.assertTrue(html.contains("AUTHORS"));
+        // повторный запрос отдается из кэша страниц
+        Assertions.assertEquals(html, getHtml("/authors?size=2"));
+        Map<?, ?> pages = ((Cache<?, ?>) cacheManager.getCache(CacheConfig.PAGES).getNativeCache()).asMap();
+        Assertions.assertTrue(pages.keySet().stream().anyMatch(key -> key.toString().startsWith("authors:")));
+    }
+
+    @Test
+    public void testBadCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/books").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testPagesCacheBoundedByMemory() throws Exception {
+        getHtml("/books?size=1000");
+        // кэш страниц ограничен объемом страниц (library.cache.pages.max-memory), а не числом записей
+        Cache<?, ?> pages = (Cache<?, ?>) cacheManager.getCache(CacheConfig.PAGES).getNativeCache();
+        Assertions.assertEquals(32L * 1024 * 1024, pages.policy().eviction().orElseThrow().getMaximum());
+        Assertions.assertTrue(pages.policy().eviction().orElseThrow().weightedSize().orElseThrow() > 0);
+    }
+
+    @Test
+    public void testBooksPageRenderedAgainAfterCreate() throws Exception {
+        getHtml("/books?size=1000");
+
+        BookCreateDto bookCreateDto = new BookCreateDto();
+        bookCreateDto.setName("Книга для страницы");
+        bookCreateDto.setGenre("Роман");
+        BookDto created = bookService.createBook(bookCreateDto);
+        try {
+            // новая книга меняет версию каталога, а с ней и ключ кэша
+            Assertions.assertTrue(getHtml("/books?size=1000").contains("Книга для страницы"));
+        } finally {
+            bookService.deleteBook(created.getId());
+        }
+    }
+
+    private String getHtml(String url) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_HTML))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+}
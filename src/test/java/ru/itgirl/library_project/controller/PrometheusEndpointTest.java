@@ -0,0 +1,51 @@
+package ru.itgirl.library_project.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// В тестах экспорт метрик по умолчанию выключен, @AutoConfigureObservability включает /actuator/prometheus.
+// Фильтры не отключаем - время запросов записывает фильтр, поэтому запросы идут с HTTP Basic
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static final String ADMIN = "Basic " + Base64.getEncoder()
+            .encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    public void testPrometheusMetrics() throws Exception {
+        // запрос к контроллеру, чтобы появились метрики запроса и репозитория
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/v2").param("name", "Война и мир")
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/book/v2\"")))
+                .andExpect(content().string(containsString(
+                        "spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString(
+                        "library_repository_rows_count{method=\"findBookByNameBySql\",repository=\"BookRepository\"")))
+                .andExpect(content().string(containsString("hibernate_query_executions_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+}
@@ -0,0 +1,67 @@
+package ru.itgirl.library_project.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+public class ReactiveCatalogRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testGetBookByName() throws Exception {
+        performAsync(MockMvcRequestBuilders.get("/reactive/book").param("name", "Война и мир"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Война и мир"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.genre").value("Роман"));
+    }
+
+    @Test
+    public void testGetAuthorById() throws Exception {
+        // Толстой - у него есть книга
+        performAsync(MockMvcRequestBuilders.get("/reactive/author/3"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.surname").value("Толстой"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.books[0].name").value("Война и мир"));
+    }
+
+    @Test
+    public void testGetGenreById() throws Exception {
+        performAsync(MockMvcRequestBuilders.get("/reactive/genre/2"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Роман"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.books[0].authors").isArray());
+    }
+
+    @Test
+    public void testGetAllBooksNdjson() throws Exception {
+        performAsync(MockMvcRequestBuilders.get("/reactive/book/catalog").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("{\"id\":1,")));
+    }
+
+    // Ответ приходит асинхронно, поэтому сначала дожидаемся его
+    private ResultActions performAsync(RequestBuilder requestBuilder)
+            throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.itgirl.library_project.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+public class SearchRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testSearchByPrefix() throws Exception {
+        // Поиск по началу названия, регистр не важен
+        mockMvc.perform(MockMvcRequestBuilders.get("/search")
+                        .param("q", "мастер"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].type").value("book"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].title").value("Мастер и Маргарита"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].genre").value("Роман"));
+    }
+
+    @Test
+    public void testSearchByInfix() throws Exception {
+        // Поиск по подстроке в фамилии автора
+        mockMvc.perform(MockMvcRequestBuilders.get("/search")
+                        .param("q", "стоевск")
+                        .param("type", "author"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].type").value("author"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].title").value("Федор Достоевский"));
+    }
+
+    @Test
+    public void testSearchWithTypo() throws Exception {
+        // Опечатка в фамилии - находим по триграммам
+        mockMvc.perform(MockMvcRequestBuilders.get("/search")
+                        .param("q", "Булгакв"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].type").value("author"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].title").value("Михаил Булгаков"));
+    }
+
+    @Test
+    public void testSearchWithUnknownType() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/search")
+                        .param("q", "мастер")
+                        .param("type", "magazine"))
+                .andExpect(status().isBadRequest());
+    }
+}
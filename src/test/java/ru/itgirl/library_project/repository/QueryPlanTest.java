@@ -0,0 +1,75 @@
+package ru.itgirl.library_project.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Проверяем, что горячие запросы репозиториев используют индексы, а не последовательное чтение таблицы.
+// В тестовой базе таблицы маленькие, поэтому seq scan запрещаем - план покажет, есть ли подходящий индекс
+@SpringBootTest
+@Transactional
+public class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    public void testFindBookByNameUsesIndex() {
+        assertUsesIndex("SELECT * FROM book WHERE name = 'Война и мир'", "book_name_idx");
+    }
+
+    @Test
+    public void testFindAuthorByNameUsesIndex() {
+        assertUsesIndex("SELECT * FROM author WHERE name = 'Лев'", "author_name_idx");
+    }
+
+    @Test
+    public void testFindAuthorBySurnameUsesIndex() {
+        // фамилия - первая колонка составного индекса, он подходит и для поиска только по ней
+        assertUsesIndex("SELECT * FROM author WHERE surname = 'Толстой' ORDER BY name", "author_surname_name_idx");
+    }
+
+    @Test
+    public void testFindGenreByNameUsesIndex() {
+        assertUsesIndex("SELECT * FROM genre WHERE name = 'Роман'", "genre_name_uidx");
+    }
+
+    @Test
+    public void testBooksOfGenreUsesIndex() {
+        assertUsesIndex("SELECT * FROM book WHERE genre_id = 2", "book_genre_id_id_idx");
+    }
+
+    @Test
+    public void testAuthorsOfBookUsesPrimaryKey() {
+        assertUsesIndex("SELECT * FROM author_book WHERE book_id = 1", "author_book_pkey");
+    }
+
+    @Test
+    public void testBooksOfAuthorUsesReverseIndex() {
+        assertUsesIndex("SELECT * FROM author_book WHERE author_id = 3", "author_book_author_id_book_id_idx");
+    }
+
+    @Test
+    public void testGenreCatalogPageUsesIndex() {
+        assertUsesIndex("SELECT * FROM genre_catalog WHERE genre_id = 2 AND book_id > 0 ORDER BY book_id LIMIT 50",
+                "genre_catalog_genre_id_book_id_idx");
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        String planText = String.join("\n", plan);
+        Assertions.assertTrue(planText.contains(index), "Expected index " + index + " in plan:\n" + planText);
+        Assertions.assertFalse(planText.contains("Seq Scan"), "Unexpected sequential scan:\n" + planText);
+    }
+}
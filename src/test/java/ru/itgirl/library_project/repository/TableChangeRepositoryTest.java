@@ -0,0 +1,58 @@
+package ru.itgirl.library_project.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+// Версии таблиц: пишущие транзакции не ждут друг друга на счетчике, версия растет только после коммита
+// и не меняется при переносе журнала в счетчики
+@SpringBootTest
+public class TableChangeRepositoryTest {
+
+    @Autowired
+    private TableChangeRepository tableChangeRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testConcurrentWritersNotSerialized() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            try (Statement firstStatement = first.createStatement(); Statement secondStatement = second.createStatement()) {
+                firstStatement.executeUpdate("UPDATE book SET name = name WHERE id = 1");
+                // первая транзакция не зафиксирована; раньше вторая ждала бы ее на строке счетчика book
+                secondStatement.execute("SET LOCAL lock_timeout = '2s'");
+                Assertions.assertEquals(1, secondStatement.executeUpdate("UPDATE book SET name = name WHERE id = 2"));
+            } finally {
+                first.rollback();
+                second.rollback();
+            }
+        }
+    }
+
+    @Test
+    public void testVersionAfterCommitAndCompaction() {
+        tableChangeRepository.compact();
+        long version = tableChangeRepository.findVersion("book");
+
+        jdbcTemplate.update("UPDATE book SET name = name WHERE id = 1");
+        Assertions.assertEquals(version + 1, tableChangeRepository.findVersion("book"));
+
+        // перенос журнала в счетчик версию не меняет
+        tableChangeRepository.compact();
+        Assertions.assertEquals(version + 1, tableChangeRepository.findVersion("book"));
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM table_change_log WHERE table_name = 'book'", Long.class));
+    }
+}
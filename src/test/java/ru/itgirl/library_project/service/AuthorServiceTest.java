@@ -8,9 +8,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import ru.itgirl.library_project.dto.AuthorCreateDto;
 import ru.itgirl.library_project.dto.AuthorDto;
 import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.ChangeEventDto;
 import ru.itgirl.library_project.model.Author;
 import ru.itgirl.library_project.model.Book;
 import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.repository.projection.AuthorBookRow;
 import ru.itgirl.library_project.service.impl.AuthorServiceImpl;
 
 import java.util.*;
@@ -23,6 +26,12 @@ public class AuthorServiceTest {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private GenreRepository genreRepository;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
+
     @InjectMocks
     private AuthorServiceImpl authorService;
 
@@ -34,11 +43,11 @@ public class AuthorServiceTest {
         Set<Book> books = new HashSet<>();
         Author author = new Author(id, name, surname, books);
 
-        when(authorRepository.findById(id)).thenReturn(Optional.of(author));
+        when(authorRepository.findDetailById(id)).thenReturn(Optional.of(author));
 
         AuthorDto authorDto = authorService.getAuthorById(id);
 
-        verify(authorRepository).findById(id);
+        verify(authorRepository).findDetailById(id);
         Assertions.assertEquals(authorDto.getId(), author.getId());
         Assertions.assertEquals(authorDto.getName(), author.getName());
         Assertions.assertEquals(authorDto.getSurname(), author.getSurname());
@@ -47,11 +56,11 @@ public class AuthorServiceTest {
     @Test
     public void testGetAuthorByIdNotFound() {
         Long id = 1L;
-        when(authorRepository.findById(id)).thenReturn(Optional.empty());
+        when(authorRepository.findDetailById(id)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(NoSuchElementException.class, () -> authorService.getAuthorById(id));
 
-        verify(authorRepository).findById(id);
+        verify(authorRepository).findDetailById(id);
     }
 
     @Test
@@ -59,31 +68,36 @@ public class AuthorServiceTest {
         String name = "John";
         String surname = "Doe";
         Long id = 1L;
-        Set<Book> books = new HashSet<>();
-        Author author = new Author(id, name, surname, books);
-        // Настройка мока для метода findAuthorByName
-        when(authorRepository.findAuthorByName(name)).thenReturn(Optional.of(author));
+        // Автор с двумя книгами приходит из проекции двумя строками
+        List<AuthorBookRow> rows = List.of(
+                new AuthorBookRow(id, name, surname, 10L, "Книга 1", "Роман"),
+                new AuthorBookRow(id, name, surname, 11L, "Книга 2", "Драма"));
+        // Настройка мока для метода findAuthorRowsByName
+        when(authorRepository.findAuthorRowsByName(name)).thenReturn(rows);
         // Вызов метода сервиса
         AuthorDto authorDto = authorService.getByNameV1(name);
         // Проверка взаимодействия с репозиторием
-        verify(authorRepository).findAuthorByName(name);
+        verify(authorRepository).findAuthorRowsByName(name);
 
         // Проверка значений в AuthorDto
-        Assertions.assertEquals(authorDto.getId(), author.getId());
-        Assertions.assertEquals(authorDto.getName(), author.getName());
-        Assertions.assertEquals(authorDto.getSurname(), author.getSurname());
+        Assertions.assertEquals(id, authorDto.getId());
+        Assertions.assertEquals(name, authorDto.getName());
+        Assertions.assertEquals(surname, authorDto.getSurname());
+        Assertions.assertEquals(2, authorDto.getBooks().size());
+        Assertions.assertEquals("Книга 1", authorDto.getBooks().get(0).getName());
+        Assertions.assertEquals("Драма", authorDto.getBooks().get(1).getGenre());
     }
 
     @Test
     public void testGetByNameV1NotFound() {
         String name = "John";
 
-        // Настройка мока для метода findAuthorByName, чтобы вернуть пустой Optional
-        when(authorRepository.findAuthorByName(name)).thenReturn(Optional.empty());
+        // Настройка мока для метода findAuthorRowsByName, чтобы вернуть пустой список
+        when(authorRepository.findAuthorRowsByName(name)).thenReturn(new ArrayList<>());
         // Проверка, что метод выбрасывает NoSuchElementException
         Assertions.assertThrows(NoSuchElementException.class, () -> authorService.getByNameV1(name));
         // Проверка взаимодействия с репозиторием
-        verify(authorRepository).findAuthorByName(name);
+        verify(authorRepository).findAuthorRowsByName(name);
     }
 
     @Test
@@ -192,6 +206,7 @@ public class AuthorServiceTest {
         // Проверка взаимодействия с репозиторием
         verify(authorRepository).findById(id);
         verify(authorRepository).deleteById(id); // Проверка, что deleteById был вызван
+        verify(changeFeedService).recordChanges(ChangeEventDto.EntityType.AUTHOR, List.of(id)); // событие об удалении
     }
 
     @Test
@@ -208,37 +223,36 @@ public class AuthorServiceTest {
 
     @Test
     public void testGetAllAuthors() {
-        // Подготовка данных
-        Author author1 = new Author(1L, "John", "Doe", new HashSet<>());
-        Author author2 = new Author(2L, "Harry", "Potter", new HashSet<>());
-        List<Author> authors = new ArrayList<>();
-        authors.add(author1);
-        authors.add(author2);
+        // Подготовка данных: у первого автора книга есть, у второго нет
+        List<AuthorBookRow> rows = new ArrayList<>();
+        rows.add(new AuthorBookRow(1L, "John", "Doe", 10L, "Книга 1", "Роман"));
+        rows.add(new AuthorBookRow(2L, "Harry", "Potter", null, null, null));
         // Настройка поведения мока
-        when(authorRepository.findAll()).thenReturn(authors);
+        when(authorRepository.findAllAuthorRows()).thenReturn(rows);
         // Вызов метода
         List<AuthorDto> authorDtos = authorService.getAllAuthors();
         // Проверка результатов
-        verify(authorRepository).findAll();
+        verify(authorRepository).findAllAuthorRows();
         Assertions.assertEquals(2, authorDtos.size());
-        Assertions.assertEquals(author1.getId(), authorDtos.get(0).getId());
-        Assertions.assertEquals(author1.getName(), authorDtos.get(0).getName());
-        Assertions.assertEquals(author1.getSurname(), authorDtos.get(0).getSurname());
-        Assertions.assertEquals(author2.getId(), authorDtos.get(1).getId());
-        Assertions.assertEquals(author2.getName(), authorDtos.get(1).getName());
-        Assertions.assertEquals(author2.getSurname(), authorDtos.get(1).getSurname());
+        Assertions.assertEquals(1L, authorDtos.get(0).getId());
+        Assertions.assertEquals("John", authorDtos.get(0).getName());
+        Assertions.assertEquals("Doe", authorDtos.get(0).getSurname());
+        Assertions.assertEquals(1, authorDtos.get(0).getBooks().size());
+        Assertions.assertEquals(2L, authorDtos.get(1).getId());
+        Assertions.assertEquals("Harry", authorDtos.get(1).getName());
+        Assertions.assertEquals("Potter", authorDtos.get(1).getSurname());
+        Assertions.assertTrue(authorDtos.get(1).getBooks().isEmpty());
     }
 
     @Test
     public void testGetAllAuthorsNotFound() {
         // Настройка поведения мока
-        when(authorRepository.findAll()).thenReturn(new ArrayList<>());
+        when(authorRepository.findAllAuthorRows()).thenReturn(new ArrayList<>());
         // Вызов метода
         List<AuthorDto> authorDtos = authorService.getAllAuthors();
         // Проверка результатов
-        verify(authorRepository).findAll();
+        verify(authorRepository).findAllAuthorRows();
         Assertions.assertTrue(authorDtos.isEmpty(), "Expected empty list of authors");
     }
 
-
 }
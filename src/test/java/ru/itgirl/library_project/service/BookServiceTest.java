@@ -8,6 +8,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import ru.itgirl.library_project.dto.BookCreateDto;
 import ru.itgirl.library_project.dto.BookDto;
 import ru.itgirl.library_project.dto.BookUpdateDto;
+import ru.itgirl.library_project.dto.ChangeEventDto;
 import ru.itgirl.library_project.model.Book;
 import ru.itgirl.library_project.model.Genre;
 import ru.itgirl.library_project.repository.BookRepository;
@@ -27,6 +28,9 @@ public class BookServiceTest {
     @Mock
     private GenreRepository genreRepository; // Добавляем новый мок для genreRepository
 
+    @Mock
+    private ChangeFeedService changeFeedService;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -34,34 +38,27 @@ public class BookServiceTest {
     public void testGetByNameV1() {
         String name = "JAVA from EPAM";
         Long id = 1L;
-        Genre genre = new Genre(); // Создаем объект Genre
-        genre.setId(1L); // Устанавливаем ID жанра
-        genre.setName("Программирование"); // Устанавливаем имя жанра
-        Book book = new Book();
-        book.setId(id);
-        book.setName(name);
-        book.setGenre(genre); // Устанавливаем жанр
-        book.setAuthors(new HashSet<>()); // Устанавливаем пустое множество авторов
+        BookDto book = new BookDto(id, name, "Программирование"); // проекция сразу возвращает DTO
         // Настройка поведения мока
-        when(bookRepository.findBookByName(name)).thenReturn(Optional.of(book));
+        when(bookRepository.findBookDtoByName(name)).thenReturn(Optional.of(book));
         // Вызов метода
         BookDto bookDto = bookService.getByNameV1(name);
         // Проверка результатов
-        verify(bookRepository).findBookByName(name);
-        Assertions.assertEquals(bookDto.getId(), book.getId());
-        Assertions.assertEquals(bookDto.getName(), book.getName());
-        Assertions.assertEquals(bookDto.getGenre(), genre.getName()); // Проверяем имя жанра
+        verify(bookRepository).findBookDtoByName(name);
+        Assertions.assertEquals(id, bookDto.getId());
+        Assertions.assertEquals(name, bookDto.getName());
+        Assertions.assertEquals("Программирование", bookDto.getGenre()); // Проверяем имя жанра
     }
 
     @Test
     public void testGetByNameV1NotFound() {
         String name = "JAVA Методы программирования";
         // Настройка поведения мока
-        when(bookRepository.findBookByName(name)).thenReturn(Optional.empty());
+        when(bookRepository.findBookDtoByName(name)).thenReturn(Optional.empty());
         // Проверка, что выбрасывается исключение
         Assertions.assertThrows(NoSuchElementException.class, () -> bookService.getByNameV1(name));
         // Проверка, что метод был вызван
-        verify(bookRepository).findBookByName(name);
+        verify(bookRepository).findBookDtoByName(name);
     }
 
     @Test
@@ -172,6 +169,7 @@ public class BookServiceTest {
         // Проверка взаимодействия с репозиторием
         verify(bookRepository).findById(id); // Проверка, что findById был вызван
         verify(bookRepository).deleteById(id); // Проверка, что deleteById был вызван
+        verify(changeFeedService).recordChanges(ChangeEventDto.EntityType.BOOK, List.of(id)); // событие об удалении
     }
 
     @Test
@@ -188,47 +186,34 @@ public class BookServiceTest {
 
     @Test
     public void testGetAllBooks() {
-        // Создаем объект жанра
-        Genre genre = new Genre();
-        genre.setId(1L);
-        genre.setName("Программирование"); // Устанавливаем имя жанра
-        // Создаем список книг с указанием жанра
-        Long id1 = 1L;
+        // Создаем список книг (проекция сразу возвращает DTO с именем жанра)
+        String genre = "Программирование";
         String name1 = "Философия Java";
-        Book book1 = new Book();
-        book1.setId(id1);
-        book1.setName(name1);
-        book1.setGenre(genre); // Устанавливаем жанр
-        Long id2 = 2L;
         String name2 = "Java - руководство для начинающих";
-        Book book2 = new Book();
-        book2.setId(id2);
-        book2.setName(name2);
-        book2.setGenre(genre); // Устанавливаем жанр
-        List<Book> books = Arrays.asList(book1, book2);
-        // Настройка мока для метода findAll
-        when(bookRepository.findAll()).thenReturn(books);
+        List<BookDto> books = Arrays.asList(new BookDto(1L, name1, genre), new BookDto(2L, name2, genre));
+        // Настройка мока для метода findAllBookDtos
+        when(bookRepository.findAllBookDtos()).thenReturn(books);
         // Вызов метода сервиса
         List<BookDto> bookDtos = bookService.getAllBooks(); // Используем bookService для вызова метода getAllBooks
         // Проверка взаимодействия с репозиторием
-        verify(bookRepository).findAll(); // Проверка, что findAll был вызван
+        verify(bookRepository).findAllBookDtos(); // Проверка, что findAllBookDtos был вызван
         // Проверка, что возвращаемый список не пустой и содержит правильные данные
         Assertions.assertNotNull(bookDtos);
         Assertions.assertEquals(2, bookDtos.size());
         Assertions.assertEquals(name1, bookDtos.get(0).getName());
-        Assertions.assertEquals(genre.getName(), bookDtos.get(0).getGenre());
+        Assertions.assertEquals(genre, bookDtos.get(0).getGenre());
         Assertions.assertEquals(name2, bookDtos.get(1).getName());
-        Assertions.assertEquals(genre.getName(), bookDtos.get(1).getGenre());
+        Assertions.assertEquals(genre, bookDtos.get(1).getGenre());
     }
 
     @Test
     public void testGetAllBooksNotFound() {
         // Настройка мока
-        when(bookRepository.findAll()).thenReturn(new ArrayList<>());
+        when(bookRepository.findAllBookDtos()).thenReturn(new ArrayList<>());
         // Вызов метода
         List<BookDto> bookDtos = bookService.getAllBooks();
         // Проверка результатов
-        verify(bookRepository).findAll();
+        verify(bookRepository).findAllBookDtos();
         Assertions.assertTrue(bookDtos.isEmpty(), "Expected empty list of books");
     }
 
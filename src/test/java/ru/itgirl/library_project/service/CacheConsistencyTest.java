@@ -0,0 +1,85 @@
+package ru.itgirl.library_project.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itgirl.library_project.dto.AuthorCreateDto;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.BookCreateDto;
+import ru.itgirl.library_project.dto.BookDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Кэши не отдают данные, которых уже нет в базе.
+// Без @Transactional: в кэш второго уровня и в кэши сервисов попадает только зафиксированное
+@SpringBootTest
+public class CacheConsistencyTest {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> authorIds = new ArrayList<>();
+    private final List<Long> bookIds = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        bookIds.forEach(id -> jdbcTemplate.update("DELETE FROM book WHERE id = ?", id));
+        authorIds.forEach(id -> jdbcTemplate.update("DELETE FROM author WHERE id = ?", id));
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void testAuthorBooksEvictedOnBookDelete() {
+        AuthorDto author = authorService.createAuthor(new AuthorCreateDto("Анна", "Ахматова"));
+        authorIds.add(author.getId());
+        BookDto book = bookService.createBook(new BookCreateDto("Вечер", "Драма"));
+        bookIds.add(book.getId());
+        // связь через API не создается - добавляем ее в базе и забываем все, что Hibernate успел закэшировать
+        jdbcTemplate.update("INSERT INTO author_book (author_id, book_id) VALUES (?, ?)", author.getId(), book.getId());
+        entityManagerFactory.getCache().evictAll();
+
+        // книги автора попадают в кэш второго уровня
+        Assertions.assertEquals(1, authorService.getAuthorById(author.getId()).getBooks().size());
+
+        bookService.deleteBook(book.getId());
+        // книга удалена - закэшированный список книг автора сброшен, а не ссылается на несуществующую книгу
+        AuthorDto updated = authorService.updateAuthor(new AuthorUpdateDto(author.getId(), "Анна", "Горенко"));
+        Assertions.assertTrue(updated.getBooks().isEmpty());
+        Assertions.assertTrue(authorService.getAuthorById(author.getId()).getBooks().isEmpty());
+    }
+
+    @Test
+    public void testAuthorEvictedAfterCommit() {
+        AuthorDto author = authorService.createAuthor(new AuthorCreateDto("Марина", "Цветаева"));
+        authorIds.add(author.getId());
+        authorService.getAuthorById(author.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            authorService.updateAuthor(new AuthorUpdateDto(author.getId(), "Марина", "Эфрон"));
+            // параллельный запрос до коммита видит старую фамилию - и не должен оставить ее в кэше после коммита
+            AuthorDto concurrent = CompletableFuture.supplyAsync(() -> authorService.getAuthorById(author.getId())).join();
+            Assertions.assertEquals("Цветаева", concurrent.getSurname());
+        });
+        Assertions.assertEquals("Эфрон", authorService.getAuthorById(author.getId()).getSurname());
+    }
+}
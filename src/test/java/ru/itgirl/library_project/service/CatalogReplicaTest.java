@@ -0,0 +1,126 @@
+package ru.itgirl.library_project.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.itgirl.library_project.dto.AuthorCreateDto;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.BookCreateDto;
+import ru.itgirl.library_project.dto.BookDto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Реплика отдает то же, что и чтение через JPA, применяет записи сервисов из событий outbox без перезагрузки,
+// а изменения мимо сервисов подхватывает полной перезагрузкой после проверки версии каталога.
+// Без @Transactional: реплика читает только зафиксированные данные, созданные записи удаляются в самих тестах.
+// Relay и проверка версии вызываются из теста, ограничение частоты перезагрузок выключено
+@SpringBootTest(properties = {"library.replica.enabled=true", "library.replica.refresh-interval=1h",
+        "library.replica.min-reload-interval=0s", "library.changes.enabled=true",
+        "library.changes.relay-interval=1h", "library.changes.relay-on-commit=false"})
+public class CatalogReplicaTest {
+
+    @Autowired
+    private CatalogReplicaService catalogReplicaService;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        changeFeedService.relayChanges(); // то, что осталось от других тестов
+        catalogReplicaService.refresh();
+    }
+
+    @Test
+    public void testAuthorMatchesJpa() {
+        // Толстой с книгами и их жанрами - так же, как собирает AuthorServiceImpl
+        AuthorDto expected = authorService.getAuthorById(3L);
+        Assertions.assertEquals(expected, catalogReplicaService.getAuthorById(3L));
+    }
+
+    @Test
+    public void testBookWithAuthors() {
+        BookDto bookDto = catalogReplicaService.getBookById(1L);
+        Assertions.assertEquals("Война и мир", bookDto.getName());
+        Assertions.assertEquals("Роман", bookDto.getGenre());
+        Assertions.assertEquals(1, bookDto.getAuthors().size());
+        Assertions.assertEquals("Толстой", bookDto.getAuthors().get(0).getSurname());
+    }
+
+    @Test
+    public void testNotFound() {
+        Assertions.assertThrows(NoSuchElementException.class, () -> catalogReplicaService.getBookById(-1L));
+        Assertions.assertThrows(NoSuchElementException.class, () -> catalogReplicaService.getAuthorById(-1L));
+    }
+
+    @Test
+    public void testServiceWritesAppliedWithoutReload() {
+        Instant loadedAt = catalogReplicaService.getStats().getLoadedAt();
+        AuthorDto author = authorService.createAuthor(new AuthorCreateDto("Иван", "Бунин"));
+        BookDto book = bookService.createBook(new BookCreateDto("Темные аллеи", "Рассказ"));
+        try {
+            // связь через API не создается - добавляем ее в базе, в реплику она попадет с событием об авторе
+            jdbcTemplate.update("INSERT INTO author_book (author_id, book_id) VALUES (?, ?)", author.getId(), book.getId());
+            authorService.updateAuthor(new AuthorUpdateDto(author.getId(), "Иван", "Бунин (реплика)"));
+            changeFeedService.relayChanges();
+
+            AuthorDto replicaAuthor = catalogReplicaService.getAuthorById(author.getId());
+            Assertions.assertEquals("Бунин (реплика)", replicaAuthor.getSurname());
+            Assertions.assertEquals(List.of("Темные аллеи"), replicaAuthor.getBooks().stream().map(BookDto::getName).toList());
+            Assertions.assertEquals(authorService.getAuthorById(author.getId()), replicaAuthor);
+            // связь применена и со стороны книги
+            BookDto replicaBook = catalogReplicaService.getBookById(book.getId());
+            Assertions.assertEquals("Рассказ", replicaBook.getGenre());
+            Assertions.assertEquals("Бунин (реплика)", replicaBook.getAuthors().get(0).getSurname());
+
+            bookService.deleteBook(book.getId());
+            changeFeedService.relayChanges();
+            Assertions.assertThrows(NoSuchElementException.class, () -> catalogReplicaService.getBookById(book.getId()));
+            Assertions.assertTrue(catalogReplicaService.getAuthorById(author.getId()).getBooks().isEmpty());
+
+            authorService.deleteAuthor(author.getId());
+            changeFeedService.relayChanges();
+            Assertions.assertThrows(NoSuchElementException.class, () -> catalogReplicaService.getAuthorById(author.getId()));
+            // все это - без перечитывания каталога
+            Assertions.assertEquals(loadedAt, catalogReplicaService.getStats().getLoadedAt());
+            Assertions.assertTrue(catalogReplicaService.getStats().getChanges() > 0);
+        } finally {
+            jdbcTemplate.update("DELETE FROM author_book WHERE author_id = ?", author.getId());
+            jdbcTemplate.update("DELETE FROM book WHERE id = ?", book.getId());
+            jdbcTemplate.update("DELETE FROM author WHERE id = ?", author.getId());
+        }
+    }
+
+    @Test
+    public void testReloadedOnChangeOutsideServices() {
+        Long id = jdbcTemplate.queryForObject("INSERT INTO book (name, genre_id) "
+                + "SELECT 'Анна Каренина (реплика)', id FROM genre WHERE name = 'Роман' RETURNING id", Long.class);
+        try {
+            // записи мимо сервисов событий не дают - их видно после перезагрузки по версии каталога
+            catalogReplicaService.refreshIfChanged();
+            Assertions.assertEquals("Анна Каренина (реплика)", catalogReplicaService.getBookById(id).getName());
+            Assertions.assertEquals(0, catalogReplicaService.getStats().getChanges());
+            Assertions.assertEquals(catalogReplicaService.getStats().getBooks(),
+                    bookService.getAllBooks().size());
+        } finally {
+            jdbcTemplate.update("DELETE FROM book WHERE id = ?", id);
+        }
+        catalogReplicaService.refreshIfChanged();
+        Assertions.assertThrows(NoSuchElementException.class, () -> catalogReplicaService.getBookById(id));
+    }
+}
@@ -0,0 +1,129 @@
+package ru.itgirl.library_project.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itgirl.library_project.dto.AuthorCreateDto;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.BookCreateDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.ChangeEventDto;
+import ru.itgirl.library_project.repository.ChangeOutboxRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Изменения попадают в outbox вместе со своей транзакцией и публикуются relay сжатыми событиями.
+// Без @Transactional: relay видит только зафиксированные изменения, созданные записи удаляются в самом тесте.
+// Relay вызывается из теста (в фоне - раз в час, после коммита - выключен), события слушателей внутри приложения записывает @RecordApplicationEvents
+@SpringBootTest(properties = {"library.changes.enabled=true", "library.changes.relay-interval=1h",
+        "library.changes.relay-on-commit=false", "library.changes.file=target/change-events-test.ndjson"})
+@RecordApplicationEvents
+public class ChangeFeedTest {
+
+    private static final Path FILE = Path.of("target/change-events-test.ndjson");
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ChangeOutboxRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        changeFeedService.relayChanges(); // то, что осталось от других тестов
+        applicationEvents.clear();
+        Files.deleteIfExists(FILE);
+    }
+
+    @Test
+    public void testChangesCompactedIntoLatestState() throws Exception {
+        AuthorDto created = authorService.createAuthor(new AuthorCreateDto("Антон", "Чехов"));
+        authorService.updateAuthor(new AuthorUpdateDto(created.getId(), "Антон", "Чехонте"));
+        authorService.updateAuthor(new AuthorUpdateDto(created.getId(), "Антон", "Чехов"));
+        Assertions.assertEquals(3, outboxRepository.countPending());
+
+        Assertions.assertEquals(3, changeFeedService.relayChanges());
+        // три изменения одного автора - одно событие с последним состоянием
+        List<ChangeEventDto> upserts = events();
+        Assertions.assertEquals(1, upserts.size());
+        ChangeEventDto upsert = upserts.get(0);
+        Assertions.assertEquals(ChangeEventDto.EntityType.AUTHOR, upsert.getType());
+        Assertions.assertEquals(ChangeEventDto.Operation.UPSERT, upsert.getOperation());
+        Assertions.assertEquals(created.getId(), upsert.getId());
+        Assertions.assertEquals("Чехов", ((AuthorDto) upsert.getData()).getSurname());
+        Assertions.assertEquals(0, outboxRepository.countPending());
+
+        applicationEvents.clear();
+        authorService.deleteAuthor(created.getId());
+        changeFeedService.relayChanges();
+        ChangeEventDto delete = events().get(0);
+        Assertions.assertEquals(ChangeEventDto.Operation.DELETE, delete.getOperation());
+        Assertions.assertNull(delete.getData());
+        Assertions.assertTrue(delete.getSequence() > upsert.getSequence());
+
+        // тот же поток событий - в файле, строка на событие
+        List<String> lines = Files.readAllLines(FILE);
+        Assertions.assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        Assertions.assertEquals(upsert.getSequence(), first.get("sequence").asLong());
+        Assertions.assertEquals("Чехов", first.at("/data/surname").asText());
+        Assertions.assertEquals("DELETE", objectMapper.readTree(lines.get(1)).get("operation").asText());
+    }
+
+    @Test
+    public void testBookEventWithGenre() {
+        BookCreateDto bookCreateDto = new BookCreateDto();
+        bookCreateDto.setName("Вишневый сад (события)");
+        bookCreateDto.setGenre("Роман");
+        BookDto created = bookService.createBook(bookCreateDto);
+        try {
+            changeFeedService.relayChanges();
+            BookDto published = (BookDto) events().get(0).getData();
+            Assertions.assertEquals(created.getId(), published.getId());
+            Assertions.assertEquals("Роман", published.getGenre());
+            Assertions.assertEquals(List.of(), published.getAuthors());
+        } finally {
+            bookService.deleteBook(created.getId());
+        }
+    }
+
+    @Test
+    public void testRolledBackChangeNotPublished() {
+        transactionTemplate.executeWithoutResult(status -> {
+            authorService.createAuthor(new AuthorCreateDto("Иван", "Бунин"));
+            status.setRollbackOnly();
+        });
+        Assertions.assertEquals(0, outboxRepository.countPending());
+        Assertions.assertEquals(0, changeFeedService.relayChanges());
+        Assertions.assertTrue(events().isEmpty());
+    }
+
+    private List<ChangeEventDto> events() {
+        return applicationEvents.stream(ChangeEventDto.class).toList();
+    }
+}
@@ -0,0 +1,110 @@
+package ru.itgirl.library_project.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.BookCreateDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.BookUpdateDto;
+import ru.itgirl.library_project.dto.CursorPageDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.repository.GenreRepository;
+import ru.itgirl.library_project.util.RowsConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Витрина genre_catalog должна совпадать с тем, что собирается соединением genre + book + author,
+// и обновляться при изменении книг и авторов
+@SpringBootTest
+@Transactional
+public class GenreCatalogTest {
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    public void testCatalogMatchesJoin() {
+        GenreDto expected = RowsConverter.toGenreDto(genreRepository.findGenreRowsById(2L));
+        Assertions.assertEquals(expected, genreService.getGenreById(2L));
+    }
+
+    @Test
+    public void testCatalogUpdatedOnBookChanges() {
+        BookCreateDto bookCreateDto = new BookCreateDto();
+        bookCreateDto.setName("Анна Каренина");
+        bookCreateDto.setGenre("Роман");
+        BookDto created = bookService.createBook(bookCreateDto);
+        Assertions.assertTrue(bookIds(genreService.getGenreById(2L)).contains(created.getId()));
+
+        // книга переехала в другой жанр
+        bookService.updateBook(new BookUpdateDto(created.getId(), "Анна Каренина", "Драма"));
+        Assertions.assertFalse(bookIds(genreService.getGenreById(2L)).contains(created.getId()));
+        Assertions.assertTrue(bookIds(genreService.getGenreById(4L)).contains(created.getId()));
+
+        bookService.deleteBook(created.getId());
+        entityManager.flush();
+        Assertions.assertFalse(bookIds(genreService.getGenreById(4L)).contains(created.getId()));
+    }
+
+    @Test
+    public void testCatalogUpdatedOnAuthorChange() {
+        authorService.updateAuthor(new AuthorUpdateDto(3L, "Лев", "Толстой-Обновленный"));
+        BookDto book = genreService.getGenreById(2L).getBooks().stream()
+                .filter(bookDto -> bookDto.getId() == 1L) // Война и мир
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals("Толстой-Обновленный", book.getAuthors().get(0).getSurname());
+    }
+
+    @Test
+    public void testGenreBooksPages() {
+        List<BookDto> all = genreService.getGenreById(2L).getBooks();
+
+        // идем по страницам размером 1 - в итоге должны получить тот же список
+        List<BookDto> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDto<BookDto> page = genreService.getGenreBooksPage(2L, cursor, 1);
+            paged.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        Assertions.assertEquals(all, paged);
+    }
+
+    @Test
+    public void testGenreBooksPageNotFound() {
+        Assertions.assertThrows(NoSuchElementException.class, () -> genreService.getGenreBooksPage(999L, null, 10));
+    }
+
+    private List<Long> bookIds(GenreDto genreDto) {
+        return genreDto.getBooks().stream().map(BookDto::getId).toList();
+    }
+}
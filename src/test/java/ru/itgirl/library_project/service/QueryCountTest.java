@@ -0,0 +1,159 @@
+package ru.itgirl.library_project.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itgirl.library_project.dto.AuthorDto;
+import ru.itgirl.library_project.dto.AuthorUpdateDto;
+import ru.itgirl.library_project.dto.BookDto;
+import ru.itgirl.library_project.dto.GenreDto;
+import ru.itgirl.library_project.model.Author;
+import ru.itgirl.library_project.repository.AuthorRepository;
+import ru.itgirl.library_project.repository.GenreRepository;
+
+import java.util.List;
+
+// Считаем SQL-запросы, которые выполняет каждый метод сервиса.
+// Число запросов должно быть постоянным и не расти вместе с количеством авторов/книг в ответе (нет N+1).
+// @Transactional - как и в контроллере с open-in-view, ленивые связи могли бы догружаться по ходу конвертации в DTO
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class QueryCountTest {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear(); // чтобы ничего не бралось из кэша первого уровня
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll(); // и из кэша второго уровня
+        statistics.clear();
+    }
+
+    @Test
+    public void testGetAllAuthorsQueryCount() {
+        List<AuthorDto> authors = authorService.getAllAuthors();
+        // у всех авторов должны быть подгружены книги вместе с жанрами
+        Assertions.assertTrue(authors.size() > 1);
+        Assertions.assertTrue(authors.stream().allMatch(author -> author.getBooks() != null));
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetAuthorByIdQueryCount() {
+        AuthorDto authorDto = authorService.getAuthorById(3L); // Толстой - у него есть книга
+        Assertions.assertFalse(authorDto.getBooks().isEmpty());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetByNameV1QueryCount() {
+        authorService.getByNameV1("Лев");
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetByNameV3QueryCount() {
+        authorService.getByNameV3("Лев");
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testFindAuthorByIdWithoutBooks() {
+        // для изменения и удаления автор читается без книг, с книгами - только findDetailById
+        Author author = authorRepository.findById(3L).orElseThrow();
+        Assertions.assertFalse(Hibernate.isInitialized(author.getBooks()));
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        entityManager.clear();
+        Assertions.assertTrue(Hibernate.isInitialized(authorRepository.findDetailById(3L).orElseThrow().getBooks()));
+    }
+
+    @Test
+    public void testGetAllBooksQueryCount() {
+        List<BookDto> books = bookService.getAllBooks();
+        Assertions.assertTrue(books.size() > 1);
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetBookByNameQueryCount() {
+        bookService.getByNameV1("Война и мир");
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetGenreByIdQueryCount() {
+        // Роман - жанр с несколькими книгами, у каждой свои авторы
+        GenreDto genreDto = genreService.getGenreById(2L);
+        Assertions.assertTrue(genreDto.getBooks().size() > 1);
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // кэш сервиса заполняется после коммита чтения - поэтому вне транзакции теста, которая откатывается
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testGetAuthorByIdCached() {
+        authorService.getAuthorById(3L);
+        statistics.clear();
+        // повторный запрос берется из кэша, без обращения к базе
+        AuthorDto authorDto = authorService.getAuthorById(3L);
+        Assertions.assertEquals("Толстой", authorDto.getSurname());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetAuthorByIdEvictedOnUpdate() {
+        AuthorDto authorDto = authorService.getAuthorById(3L);
+        authorService.updateAuthor(new AuthorUpdateDto(3L, authorDto.getName(), "Толстой-Обновленный"));
+        entityManager.flush();
+        entityManager.clear();
+        // после изменения кэш сброшен - читаем актуальные данные
+        Assertions.assertEquals("Толстой-Обновленный", authorService.getAuthorById(3L).getSurname());
+    }
+
+    @Test
+    public void testFindGenreByNameQueryCached() {
+        genreRepository.findByName("Роман");
+        entityManager.clear();
+        statistics.clear();
+        // результат запроса и сам жанр берутся из кэшей Hibernate
+        Assertions.assertEquals("Роман", genreRepository.findByName("Роман").getName());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+}
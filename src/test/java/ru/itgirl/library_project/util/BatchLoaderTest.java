@@ -0,0 +1,94 @@
+package ru.itgirl.library_project.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class BatchLoaderTest {
+
+    private final List<List<Long>> batches = new ArrayList<>();
+    private final List<String> threads = new ArrayList<>();
+
+    @Test
+    public void testLoadsCoalescedAndCached() {
+        BatchLoader<Long, String> loader = loader(100);
+        Assertions.assertEquals(List.of("1", "2", "1"), loader.loadAll(List.of(1L, 2L, 1L)));
+        // уже загруженные ключи повторно не запрашиваются, отсутствующий ключ - null
+        Assertions.assertEquals(List.of("2", "3"), loader.loadAll(List.of(2L, 3L)));
+        Assertions.assertNull(loader.loadAll(List.of(-1L)).get(0));
+        Assertions.assertEquals(List.of(List.of(1L, 2L), List.of(3L), List.of(-1L)), batches);
+    }
+
+    @Test
+    public void testDispatchedExplicitlyOrBySize() {
+        BatchLoader<Long, String> loader = loader(3);
+        CompletableFuture<String> first = loader.load(1L);
+        CompletableFuture<String> second = loader.load(2L);
+        // до dispatch ключи только копятся
+        Assertions.assertFalse(first.isDone());
+        Assertions.assertTrue(batches.isEmpty());
+        loader.dispatch();
+        Assertions.assertEquals("1", first.getNow(null));
+        Assertions.assertEquals("2", second.getNow(null));
+        // набралось maxBatchSize ключей - запрос сразу, в вызывающем потоке
+        loader.load(3L);
+        loader.load(4L);
+        Assertions.assertEquals("5", loader.load(5L).getNow(null));
+        Assertions.assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L, 5L)), batches);
+    }
+
+    @Test
+    public void testDispatchedByWindowOnOwnScheduler() throws Exception {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("lookup-");
+        scheduler.initialize();
+        try {
+            BatchLoader<Long, String> loader = new BatchLoader<>(this::load, 100, Duration.ofMillis(200), scheduler);
+            // ключи из разных потоков в пределах окна - один запрос в потоке планировщика
+            CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> loader.load(1L).join());
+            CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> loader.load(2L).join());
+            CompletableFuture<String> same = loader.load(1L);
+            Assertions.assertEquals("1", first.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("2", second.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("1", same.join());
+            Assertions.assertEquals(1, batches.size());
+            Assertions.assertEquals(Set.of(1L, 2L), Set.copyOf(batches.get(0)));
+            Assertions.assertTrue(threads.get(0).startsWith("lookup-"));
+            // результат не запоминается: загрузчик общий, следующий load снова идет в базу
+            Assertions.assertEquals("1", loader.load(1L).get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(List.of(1L), batches.get(1));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailureNotCached() {
+        BatchLoader<Long, String> failing = new BatchLoader<>(ids -> {
+            throw new IllegalStateException("database is down");
+        }, 100);
+        Assertions.assertThrows(Exception.class, () -> failing.loadAll(List.of(1L)));
+        Assertions.assertThrows(Exception.class, () -> failing.loadAll(List.of(1L)));
+    }
+
+    private BatchLoader<Long, String> loader(int maxBatchSize) {
+        return new BatchLoader<>(this::load, maxBatchSize);
+    }
+
+    private synchronized Map<Long, String> load(Collection<Long> ids) {
+        batches.add(List.copyOf(ids));
+        threads.add(Thread.currentThread().getName());
+        return ids.stream().filter(id -> id > 0).collect(Collectors.toMap(Function.identity(), String::valueOf));
+    }
+}
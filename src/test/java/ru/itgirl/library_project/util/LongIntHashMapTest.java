@@ -0,0 +1,33 @@
+package ru.itgirl.library_project.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        LongIntHashMap map = new LongIntHashMap(1000);
+        // id из последовательности идут блоками по 50 - проверяем и подряд идущие, и далекие ключи
+        for (int i = 0; i < 1000; i++) {
+            map.put(1 + i * 50L, i);
+        }
+        map.put(1, 42); // повторный ключ перезаписывает значение
+        Assertions.assertEquals(1000, map.size());
+        Assertions.assertEquals(42, map.get(1, -1));
+        Assertions.assertEquals(999, map.get(1 + 999 * 50L, -1));
+        Assertions.assertEquals(-1, map.get(2, -1));
+        Assertions.assertEquals(-1, map.get(0, -1));
+    }
+
+    @Test
+    public void testCapacityLimit() {
+        LongIntHashMap map = new LongIntHashMap(3);
+        for (long key = 1; key <= 4; key++) {
+            map.put(key, (int) key);
+        }
+        // больше половины емкости не заполняется
+        Assertions.assertThrows(IllegalStateException.class, () -> map.put(5, 5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.put(0, 0));
+    }
+}
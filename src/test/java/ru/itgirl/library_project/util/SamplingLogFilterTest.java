@@ -0,0 +1,37 @@
+package ru.itgirl.library_project.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SamplingLogFilterTest {
+
+    @Test
+    public void testSamplingRates() {
+        SamplingLogFilter filter = new SamplingLogFilter();
+        filter.setRates("ru.itgirl.library_project=1, ru.itgirl.library_project.service=0");
+        filter.start();
+
+        // для логгера берется самое длинное совпадение
+        Assertions.assertEquals(FilterReply.DENY,
+                filter.decide(event("ru.itgirl.library_project.service.impl.BookServiceImpl", Level.INFO)));
+        Assertions.assertEquals(FilterReply.NEUTRAL,
+                filter.decide(event("ru.itgirl.library_project.controller.rest.BookRestController", Level.INFO)));
+        // логгеры без правила и предупреждения не отбрасываются
+        Assertions.assertEquals(FilterReply.NEUTRAL, filter.decide(event("org.hibernate.SQL", Level.INFO)));
+        Assertions.assertEquals(FilterReply.NEUTRAL,
+                filter.decide(event("ru.itgirl.library_project.service.impl.BookServiceImpl", Level.WARN)));
+        // имя должно совпадать целиком, а не только началом
+        Assertions.assertEquals(FilterReply.NEUTRAL,
+                filter.decide(event("ru.itgirl.library_project.services", Level.INFO)));
+    }
+
+    private static LoggingEvent event(String loggerName, Level level) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(loggerName);
+        event.setLevel(level);
+        return event;
+    }
+}